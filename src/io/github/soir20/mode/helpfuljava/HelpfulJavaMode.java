@@ -1,14 +1,23 @@
 package io.github.soir20.mode.helpfuljava;
 
+import io.github.soir20.mode.helpfuljava.telemetry.HintEvent;
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
+import io.github.soir20.mode.helpfuljava.pdex.HintUrlEncoder;
 import io.github.soir20.mode.helpfuljava.ui.HelpfulJavaEditor;
+import io.github.soir20.mode.helpfuljava.web.ConnectivityMonitor;
+import io.github.soir20.mode.helpfuljava.web.HintPageCache;
+import io.github.soir20.mode.helpfuljava.web.HintPrefetcher;
 import processing.app.Base;
 import processing.app.Mode;
+import processing.app.Preferences;
 import processing.app.ui.Editor;
 import processing.app.ui.EditorException;
 import processing.app.ui.EditorState;
 import processing.mode.java.JavaMode;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The main class that contains information about your mode. You can extend
@@ -16,8 +25,40 @@ import java.io.File;
  * @author soir20
  */
 public class HelpfulJavaMode extends JavaMode {
+    private static final String TELEMETRY_FILE = "helpfuljava-telemetry.bin";
+    private static final int TELEMETRY_CAPACITY = 16384;
+    private static final int CACHED_PAGES = 64;
+    private static final String HINT_SERVER_PREF = "helpfuljava.hints.url";
+    private static final String HINT_TIMEOUT_PREF = "helpfuljava.hints.timeout";
+    private static final String HINT_RENDERER_PREF = "helpfuljava.hints.renderer";
+    private static final String SWING_RENDERER = "swing";
+    private static final String WARM_UP_PREF = "helpfuljava.hints.warmup";
+    private static final String WARM_UP_CORPUS = "warmup-corpus.txt";
+    private static final int DEFAULT_HINT_TIMEOUT = 1500;
+    private static final int RECONNECT_INTERVAL = 10000;
+
+    private final HintTelemetry TELEMETRY;
+    private final String HINT_SERVER_URL;
+    private final int HINT_TIMEOUT;
+    private final HintPageCache PAGE_CACHE;
+    private final boolean USES_SWING_RENDERER;
+    private final AtomicBoolean IS_WARM_UP_CLAIMED;
+    private volatile ClassLoader javaModeClassLoader;
+
+    // Only exist while an editor in this mode is open
+    private ConnectivityMonitor connectivity;
+    private HintPrefetcher prefetcher;
+    private int openEditors;
+
     public HelpfulJavaMode(Base base, File folder) {
         super(base, folder);
+        TELEMETRY = HintTelemetry.open(Base.getSettingsFile(TELEMETRY_FILE), TELEMETRY_CAPACITY);
+        HINT_SERVER_URL = readHintServerUrl();
+        USES_SWING_RENDERER = SWING_RENDERER.equalsIgnoreCase(
+                String.valueOf(Preferences.get(HINT_RENDERER_PREF)).trim());
+        IS_WARM_UP_CLAIMED = new AtomicBoolean(!Preferences.getBoolean(WARM_UP_PREF));
+        HINT_TIMEOUT = readHintTimeout();
+        PAGE_CACHE = new HintPageCache(CACHED_PAGES);
     }
 
     /**
@@ -30,7 +71,7 @@ public class HelpfulJavaMode extends JavaMode {
     }
 
     /**
-     * Creates the editor for this mode.
+     * Creates the editor for this mode and records how long it took to open.
      * @param base      the base class for the main Processing app
      * @param path      the path to the currently-open document
      * @param state     whether the editor is reopening a sketch or creating a new one
@@ -39,22 +80,142 @@ public class HelpfulJavaMode extends JavaMode {
      */
     @Override
     public Editor createEditor(Base base, String path, EditorState state) throws EditorException {
-        return new HelpfulJavaEditor(base, path, state, this);
+        long startTime = System.nanoTime();
+        openHintServices();
+
+        Editor editor;
+        try {
+            editor = new HelpfulJavaEditor(base, path, state, this);
+        } catch (EditorException | RuntimeException err) {
+            closeHintServices();
+            throw err;
+        }
+
+        TELEMETRY.record(HintEvent.EDITOR_OPENED, (int) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+
+        return editor;
+    }
+
+    /**
+     * Gets the telemetry log shared by all editors in this mode.
+     * @return the telemetry log for hint events
+     */
+    public HintTelemetry getTelemetry() {
+        return TELEMETRY;
+    }
+
+    /**
+     * Gets the base URL of the hint server, which can be changed with the
+     * {@value #HINT_SERVER_PREF} preference.
+     * @return the base URL of the hint server
+     */
+    public String getHintServerUrl() {
+        return HINT_SERVER_URL;
+    }
+
+    /**
+     * Checks whether hints are shown with Swing components instead of pages from
+     * the hint server in a JavaFX web view, which is chosen by setting the
+     * {@value #HINT_RENDERER_PREF} preference to "{@value #SWING_RENDERER}".
+     * @return whether hints are shown with Swing components
+     */
+    public boolean usesSwingRenderer() {
+        return USES_SWING_RENDERER;
+    }
+
+    /**
+     * Checks whether an editor should warm up the hint pipeline while it is idle.
+     * Warming up is turned on with the {@value #WARM_UP_PREF} preference, and
+     * only the first editor to ask in a session is told to, since the pipeline's
+     * classes are shared by every editor.
+     * @return whether the editor asking should warm up the hint pipeline
+     */
+    public boolean claimWarmUp() {
+        return !IS_WARM_UP_CLAIMED.getAndSet(true);
+    }
+
+    /**
+     * Gets the corpus of broken snippets bundled with the mode for warming up
+     * the hint pipeline.
+     * @return the corpus file
+     */
+    public File getWarmUpCorpus() {
+        return getContentFile(WARM_UP_CORPUS);
+    }
+
+    /**
+     * Gets the monitor that tracks whether the hint server can be reached.
+     * @return the connectivity monitor for the hint server
+     */
+    public synchronized ConnectivityMonitor getConnectivityMonitor() {
+        return connectivity;
+    }
+
+    /**
+     * Gets the cache of hint pages shared by all editors in this mode.
+     * @return the cache of hint pages
+     */
+    public HintPageCache getPageCache() {
+        return PAGE_CACHE;
+    }
+
+    /**
+     * Gets the prefetcher shared by all editors in this mode, so they don't
+     * fetch more pages at once than one editor would.
+     * @return the prefetcher that fills the page cache
+     */
+    public synchronized HintPrefetcher getPrefetcher() {
+        return prefetcher;
+    }
+
+    /**
+     * Stops the connectivity monitor's and the prefetcher's threads once the last
+     * editor in this mode closes. Processing doesn't tell a mode when it stops
+     * being used, so each editor calls this when it is disposed. They are
+     * started again for the next editor in this mode.
+     */
+    public synchronized void closeHintServices() {
+        openEditors--;
+        if (openEditors == 0) {
+            prefetcher.shutdown();
+            connectivity.shutdown();
+            prefetcher = null;
+            connectivity = null;
+        }
+    }
+
+    /**
+     * Starts the connectivity monitor and the prefetcher for a new editor unless
+     * another editor in this mode already started them.
+     */
+    private synchronized void openHintServices() {
+        if (openEditors == 0) {
+            connectivity = new ConnectivityMonitor(HINT_SERVER_URL, HINT_TIMEOUT, RECONNECT_INTERVAL);
+            prefetcher = new HintPrefetcher(PAGE_CACHE, connectivity);
+        }
+
+        openEditors++;
     }
 
     /**
      * Retrieve the ClassLoader for JavaMode. This is used by the compiler to load
      * ECJ classes. Thanks to Ben Fry. Thanks to Joel Moniz for updating this for
-     * Processing 3.0.
+     * Processing 3.0. The class loader is looked up once because this is called
+     * every time the compiler runs.
      * @return the class loader from java mode
      */
     @Override
     public ClassLoader getClassLoader() {
+        if (javaModeClassLoader != null) {
+            return javaModeClassLoader;
+        }
+
         final String JAVA_MODE_NAME = JavaMode.class.getName();
 
         for (Mode mode : base.getModeList()) {
             if (mode.getClass().getName().equals(JAVA_MODE_NAME)) {
-                return mode.getClassLoader();
+                javaModeClassLoader = mode.getClassLoader();
+                return javaModeClassLoader;
             }
         }
         
@@ -64,4 +225,35 @@ public class HelpfulJavaMode extends JavaMode {
 
     }
 
+    /**
+     * Reads the base URL of the hint server from the preferences.
+     * @return the URL in the preferences or the default server's URL if there is none
+     */
+    private static String readHintServerUrl() {
+        String url = Preferences.get(HINT_SERVER_PREF);
+        if (url == null || url.trim().isEmpty()) {
+            return HintUrlEncoder.DEFAULT_BASE_URL;
+        }
+
+        return url.trim();
+    }
+
+    /**
+     * Reads the timeout for hint server requests from the preferences. The timeout
+     * is short so the offline page shows quickly when the server is down.
+     * @return the timeout in milliseconds
+     */
+    private static int readHintTimeout() {
+        String timeout = Preferences.get(HINT_TIMEOUT_PREF);
+        if (timeout == null) {
+            return DEFAULT_HINT_TIMEOUT;
+        }
+
+        try {
+            return Math.max(Integer.parseInt(timeout.trim()), 1);
+        } catch (NumberFormatException err) {
+            return DEFAULT_HINT_TIMEOUT;
+        }
+    }
+
 }
@@ -0,0 +1,62 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how long hint analysis can run. Analysis is cancelled when a newer
+ * sketch arrives or the hint thread is interrupted, and it is abandoned when it
+ * takes longer than its time limit. Long-running walks call {@link #check()}
+ * regularly so they stop promptly.
+ * @author soir20
+ */
+public class AnalysisBudget {
+    public static final AnalysisBudget UNLIMITED = new AnalysisBudget(null, 0, Long.MAX_VALUE);
+
+    private final AtomicLong CURRENT_GENERATION;
+    private final long GENERATION;
+    private final long START_TIME;
+    private final long TIME_LIMIT;
+
+    /**
+     * Creates a new budget that starts now.
+     * @param currentGeneration     the generation of the newest sketch, or null if
+     *                              the analysis doesn't depend on a sketch
+     * @param generation            the generation of the sketch being analyzed
+     * @param timeLimit             the maximum nanoseconds the analysis can run for
+     */
+    public AnalysisBudget(AtomicLong currentGeneration, long generation, long timeLimit) {
+        CURRENT_GENERATION = currentGeneration;
+        GENERATION = generation;
+        START_TIME = System.nanoTime();
+        TIME_LIMIT = timeLimit;
+    }
+
+    /**
+     * Checks whether the analysis is no longer needed because a newer sketch
+     * arrived or the hint thread was interrupted.
+     * @return whether the analysis was cancelled
+     */
+    public boolean isCancelled() {
+        boolean isStale = CURRENT_GENERATION != null && CURRENT_GENERATION.get() != GENERATION;
+        return isStale || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Checks whether the analysis has run out of time.
+     * @return whether the analysis has run longer than its time limit
+     */
+    public boolean isExpired() {
+        return TIME_LIMIT != Long.MAX_VALUE && System.nanoTime() - START_TIME > TIME_LIMIT;
+    }
+
+    /**
+     * Stops the analysis if it was cancelled or ran out of time.
+     * @throws AnalysisCancelledException if the analysis should stop
+     */
+    public void check() {
+        if (isCancelled() || isExpired()) {
+            throw new AnalysisCancelledException();
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+/**
+ * Thrown by {@link AnalysisBudget#check()} to unwind hint analysis that should stop.
+ * @author soir20
+ */
+public class AnalysisCancelledException extends RuntimeException {
+
+    /**
+     * Creates a new exception. The stack trace is never used, so it isn't filled
+     * in to keep cancellation cheap.
+     */
+    public AnalysisCancelledException() {
+        super("Hint analysis was cancelled.", null, false, false);
+    }
+
+}
@@ -0,0 +1,70 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Finds error pages for the messages of exceptions thrown while building a
+ * sketch. Messages are looked up in a {@link MessageClassifier} that is built
+ * once, so adding more messages doesn't slow down the lookup. Lookups only work
+ * on a snapshot of the editor text, so they are safe to run off the EDT.
+ * @author soir20
+ */
+public class CompileMessageHints {
+    private final ErrorURLAssembler URL_ASSEMBLER;
+    private final MessageClassifier<Handler> CLASSIFIER;
+
+    /**
+     * Creates a new message table.
+     * @param urlAssembler  the assembler for error URLs
+     */
+    public CompileMessageHints(ErrorURLAssembler urlAssembler) {
+        URL_ASSEMBLER = urlAssembler;
+        CLASSIFIER = new MessageClassifier<Handler>()
+                .add("expecting EOF, found '}'", (captures, code, errorOffset) ->
+                        URL_ASSEMBLER.getClosingCurlyBraceURL(code.substring(0, errorOffset)))
+                .add("expecting DOT{}", (captures, code, errorOffset) -> errorOffset == 0
+                        ? Optional.empty()
+                        : URL_ASSEMBLER.getIncorrectVarDeclarationURL(code, errorOffset - 1))
+                .add("It looks like you're mixing \"active\" and \"static\" modes.", (captures, code, errorOffset) ->
+                        URL_ASSEMBLER.getIncorrectMethodDeclarationURL(code.substring(0, errorOffset)))
+                .add("unexpected token:{}", (captures, code, errorOffset) ->
+                        URL_ASSEMBLER.getUnexpectedTokenURL(captures.get(0).trim()));
+    }
+
+    /**
+     * Gets the URL for an error page based on a build error message.
+     * @param message       the message of the build exception
+     * @param code          the text of the tab where the error occurred
+     * @param errorOffset   the offset of the error in the tab's text
+     * @return the hint for the matching error page or an empty if the error is unknown
+     */
+    public Optional<HintDescriptor> getErrorPageUrl(String message, String code, int errorOffset) {
+        if (code == null || errorOffset < 0 || errorOffset > code.length()) {
+            return Optional.empty();
+        }
+
+        return CLASSIFIER.classify(message).flatMap(
+                (match) -> match.getHandler().apply(match.getCaptures(), code, errorOffset)
+        );
+    }
+
+    /**
+     * Creates the error page hint for a classified message.
+     * @author soir20
+     */
+    @FunctionalInterface
+    private interface Handler {
+
+        /**
+         * Creates the error page hint for a classified message.
+         * @param captures      the text captured by the pattern's wildcards
+         * @param code          the text of the tab where the error occurred
+         * @param errorOffset   the offset of the error in the tab's text
+         * @return the hint for the error page or empty if none applies
+         */
+        Optional<HintDescriptor> apply(List<String> captures, String code, int errorOffset);
+
+    }
+
+}
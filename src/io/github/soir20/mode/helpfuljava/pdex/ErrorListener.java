@@ -1,5 +1,7 @@
 package io.github.soir20.mode.helpfuljava.pdex;
 
+import io.github.soir20.mode.helpfuljava.telemetry.HintEvent;
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ArrayAccess;
@@ -14,33 +16,60 @@ import org.eclipse.jdt.core.dom.TryStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 import processing.app.Problem;
 import processing.mode.java.pdex.ASTUtils;
-import processing.mode.java.pdex.ErrorMessageSimplifier;
 import processing.mode.java.pdex.PreprocessedSketch;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
- * Keeps track of the last error URL when an error is detected.
+ * Keeps track of the last error hint when an error is detected. Hints are
+ * computed on a single background thread (the hint thread) because they need
+ * the AST, and the available page is published on the EDT. Each problem first
+ * gets a quick hint from the syntax alone so a page is available right away,
+ * and the slower analysis with bindings refines it afterward.
  * @author soir20
  */
 public class ErrorListener {
-    private final List<Consumer<String>> LISTENERS;
-    private final ErrorURLAssembler URL_ASSEMBLER;
-    private String lastUrl;
-    private PreprocessedSketch lastSketch;
+    private static final long DEFAULT_PROBLEM_TIME_LIMIT = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final int MAX_REFINEMENT_TIMEOUTS = 3;
+    private final List<Consumer<HintDescriptor>> LISTENERS;
+    private final HintTelemetry TELEMETRY;
+    private final long PROBLEM_TIME_LIMIT;
+    private final AtomicLong GENERATION;
+    private final List<TabHintTable> TAB_TABLES;
+    private volatile ErrorURLAssembler urlAssembler;
+    private HintDescriptor lastHint;
+    private volatile PreprocessedSketch lastSketch;
+    private volatile ProblemTable problemTable;
 
     /**
      * Creates a new listener.
-     * @param urlAssembler  the assembler for error URLs
+     * @param telemetry     the log to record page changes in
      */
-    public ErrorListener(ErrorURLAssembler urlAssembler) {
+    public ErrorListener(HintTelemetry telemetry) {
+        this(telemetry, DEFAULT_PROBLEM_TIME_LIMIT);
+    }
+
+    /**
+     * Creates a new listener with its own time limit for analyzing a problem,
+     * such as for tools that measure the analysis and need it to finish.
+     * @param telemetry             the log to record page changes in
+     * @param problemTimeLimit      the maximum nanoseconds to analyze one problem
+     *                              for, or {@link Long#MAX_VALUE} for no limit
+     */
+    public ErrorListener(HintTelemetry telemetry, long problemTimeLimit) {
         LISTENERS = new ArrayList<>();
-        URL_ASSEMBLER = urlAssembler;
-        lastUrl = URL_ASSEMBLER.getDefaultUrl();
+        TELEMETRY = telemetry;
+        PROBLEM_TIME_LIMIT = problemTimeLimit;
+        GENERATION = new AtomicLong();
+        TAB_TABLES = new ArrayList<>();
+        lastHint = HintDescriptor.getDefault();
+        problemTable = ProblemTable.empty();
     }
 
     /**
@@ -48,7 +77,7 @@ public class ErrorListener {
      * @param listener      a listener that fires when the error page changes
      *                      with the new page as its parameter
      */
-    public void addListener(Consumer<String> listener) {
+    public void addListener(Consumer<HintDescriptor> listener) {
         LISTENERS.add(listener);
     }
 
@@ -57,71 +86,498 @@ public class ErrorListener {
      * @return whether an error page is available
      */
     public boolean hasPage() {
-        return !lastUrl.equals(URL_ASSEMBLER.getDefaultUrl()) && !lastUrl.startsWith(URL_ASSEMBLER.getBaseUrl() + "?");
+        return !lastHint.isDefault();
     }
 
     /**
-     * Gets the last error URL sent to the listener. If no URLs have been sent,
-     * the default one from the URL assembler is returned. URLs are already
-     * marked as embedded.
-     * @return the last error URL sent to the listener
+     * Gets the last error hint sent to the listener. If no hints have been sent,
+     * the default one is returned.
+     * @return the last error hint sent to the listener
      */
-    public String getLastUrl() {
-        return lastUrl;
+    public HintDescriptor getLastHint() {
+        return lastHint;
+    }
+
+    /**
+     * Gets the refined hints that have already been computed for problems in the
+     * newest sketch. Quick hints are left out since their pages may change once
+     * they are refined. Can be called on any thread.
+     * @return the refined hints in the order of their problems, without duplicates
+     */
+    public List<HintDescriptor> getRefinedHints() {
+        ProblemTable table = problemTable;
+        List<HintDescriptor> hints = new ArrayList<>();
+
+        for (int row = 0; row < table.size(); row++) {
+            Optional<HintDescriptor> hint = table.getRefinedHint(row);
+            if (hint != null && hint.isPresent() && !hints.contains(hint.get())) {
+                hints.add(hint.get());
+            }
+        }
+
+        return hints;
     }
 
     /**
-     * Updates the available page if there is one associated with the given problem.
+     * Updates the available page if the hint for the given problem has already
+     * been computed. Should be called on the EDT.
      * @param problem   the problem to make a page available for
+     * @return whether the hint for the problem had already been computed
+     */
+    public boolean updateAvailablePageIfReady(Problem problem) {
+        ProblemTable table = problemTable;
+        int row = table.findRow(problem);
+        if (row < 0) {
+            return false;
+        }
+
+        Optional<HintDescriptor> hint = table.getHint(row);
+        if (hint == null) {
+            return false;
+        }
+
+        hint.ifPresent(this::updateAvailablePage);
+        return true;
+    }
+
+    /**
+     * Finds the hint associated with the given problem, computing its quick hint
+     * if it hasn't been computed yet. Should be called on the hint thread.
+     * @param problem   the problem to find the hint for
+     * @return the hint for the problem or empty if there is none or a newer
+     *         sketch arrived while it was being computed
+     */
+    public Optional<HintDescriptor> findHint(Problem problem) {
+        ProblemTable table = problemTable;
+        int row = table.findRow(problem);
+        if (row < 0) {
+            return Optional.empty();
+        }
+
+        try {
+            return analyzeRow(table, row, GENERATION.get());
+        } catch (AnalysisCancelledException err) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Replaces the quick hint for a problem in the newest sketch with its refined
+     * hint, which uses bindings. Should be called on the hint thread. Stops early
+     * if the thread is interrupted or a newer sketch arrives.
+     * @param hint      the quick hint to refine
+     * @return the refined hint or empty if the hint isn't an unrefined hint for the
+     *         newest sketch, it has no refined hint, or the refinement was cancelled
+     */
+    public Optional<HintDescriptor> refineHint(HintDescriptor hint) {
+        ProblemTable table = problemTable;
+        long generation = GENERATION.get();
+
+        for (int row = 0; row < table.size(); row++) {
+            Optional<HintDescriptor> rowHint = table.getHint(row);
+            if (rowHint != null && rowHint.isPresent() && rowHint.get().equals(hint) && !table.isRefined(row)) {
+                try {
+                    return refineRow(table, row, generation);
+                } catch (AnalysisCancelledException err) {
+                    return Optional.empty();
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Finds the hint for a compiler problem in an AST that isn't part of a sketch,
+     * such as a test fixture. The problem is fully analyzed with bindings within the
+     * listener's time limit but isn't remembered. Should be called on the hint thread.
+     * @param compilerError     the compiler problem
+     * @param ast               the root of the AST the problem is in
+     * @return the hint for the problem or empty if there is none
+     */
+    public Optional<HintDescriptor> findHint(IProblem compilerError, ASTNode ast) {
+        try {
+            Optional<HintDescriptor> hint = getErrorPageUrl(compilerError, ast, GENERATION.get(), true);
+            return hint == null ? Optional.empty() : hint;
+        } catch (AnalysisCancelledException err) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Computes the hints for problems ahead of time so they are ready when the
+     * caret reaches them. Every quick hint is computed before any is refined.
+     * Problems that took too long to analyze last time are tried again.
+     * Should be called on the hint thread. Stops early if the thread is
+     * interrupted or a newer sketch arrives.
+     * @param problems  the problems to compute hints for, most important first
      */
-    public void updateAvailablePage(Problem problem) {
-        IProblem[] compilerErrors = lastSketch.compilationUnit.getProblems();
+    public void precomputeHints(List<Problem> problems) {
+        long generation = GENERATION.get();
+        for (Problem problem : problems) {
+            if (Thread.currentThread().isInterrupted() || GENERATION.get() != generation) {
+                return;
+            }
+
+            findHint(problem);
+        }
 
-        Optional<IProblem> matchingRawProblem = Arrays.stream(compilerErrors).filter(
-                (rawProblem) -> problemEquals(problem, rawProblem, lastSketch)
-        ).findFirst();
+        ProblemTable table = problemTable;
+        for (Problem problem : problems) {
+            int row = table.findRow(problem);
+            if (row < 0) {
+                continue;
+            }
 
-        if (matchingRawProblem.isPresent()) {
-            Optional<String> errorUrl = getErrorPageUrl(matchingRawProblem.get(), lastSketch.compilationUnit);
-            errorUrl.ifPresent(this::updateAvailablePage);
+            try {
+                refineRow(table, row, generation);
+            } catch (AnalysisCancelledException err) {
+                return;
+            }
         }
     }
 
     /**
-     * Sets the available page during preprocessing. Serves as a listener for
-     * the {@link processing.mode.java.pdex.PreprocessingService}. Fires all listeners.
+     * Forgets the newest sketch and its AST, such as while the editor is in the
+     * background. Hints that were already computed are kept, but problems that
+     * weren't refined can't be until a new sketch arrives. Can be called on any thread.
+     * @return whether any problem was left unrefined, so the sketch should be analyzed again later
+     */
+    public boolean releaseSketch() {
+        boolean hadSketch = lastSketch != null;
+        lastSketch = null;
+        clearInferredTypes();
+        return hadSketch && !problemTable.isComplete();
+    }
+
+    /**
+     * Gets the assembler that analyzes errors, creating it the first time there is
+     * an error to analyze. Sketches without errors never load the JDT DOM classes
+     * it needs. Should be called on the hint thread.
+     * @return the assembler for error hints
+     */
+    public ErrorURLAssembler getUrlAssembler() {
+        if (urlAssembler == null) {
+            long startTime = System.nanoTime();
+            urlAssembler = new ErrorURLAssembler();
+            TELEMETRY.record(HintEvent.HINTS_INITIALIZED,
+                    (int) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+        }
+
+        return urlAssembler;
+    }
+
+    /**
+     * Starts a new generation of analysis because a new sketch has arrived. Analysis
+     * of older sketches stops at its next check, and its results are never published.
+     * Can be called on any thread.
+     * @return the generation of the new sketch
+     */
+    public long startGeneration() {
+        return GENERATION.incrementAndGet();
+    }
+
+    /**
+     * Gets the generation of the newest sketch.
+     * @return the generation of the newest sketch
+     */
+    public long getGeneration() {
+        return GENERATION.get();
+    }
+
+    /**
+     * Sets the sketch whose problems hints are found for. Serves as a listener for
+     * the {@link processing.mode.java.pdex.PreprocessingService}. Should be called
+     * on the hint thread. The sketch is only kept until every problem in it has
+     * been analyzed.
      * @param sketch        the preprocessed sketch
+     * @param generation    the generation from {@link #startGeneration()} when the sketch arrived
+     * @return the hint for the first problem with one or the default hint if there
+     *         is none, or empty if a newer sketch arrived during the analysis
      */
-    public void updateAvailablePage(PreprocessedSketch sketch) {
-        lastSketch = sketch;
-        IProblem[] compilerErrors = sketch.compilationUnit.getProblems();
-        updateAvailablePage(
-                Arrays.stream(compilerErrors).filter(
-                        (error) -> sketch.mapJavaToSketch(error) != PreprocessedSketch.SketchInterval.BEFORE_START
-                ).map(
-                        (error) -> getErrorPageUrl(error, sketch.compilationUnit)
-                ).filter(Optional::isPresent).findFirst().orElse(Optional.empty()).orElse(URL_ASSEMBLER.getDefaultUrl())
-        );
+    public Optional<HintDescriptor> updateSketch(PreprocessedSketch sketch, long generation) {
+        AnalysisBudget sketchBudget = new AnalysisBudget(GENERATION, generation, Long.MAX_VALUE);
+
+        try {
+            ProblemTable table = ProblemTable.extract(sketch, sketchBudget);
+            lastSketch = sketch;
+            problemTable = table;
+            updateTabTables(sketch);
+
+            for (int row = 0; row < table.size(); row++) {
+                sketchBudget.check();
+
+                Optional<HintDescriptor> hint = analyzeRow(table, row, generation);
+                if (hint.isPresent()) {
+                    return hint;
+                }
+            }
+        } catch (AnalysisCancelledException err) {
+            return Optional.empty();
+        }
+
+        return Optional.of(HintDescriptor.getDefault());
+    }
+
+    /**
+     * Sets the available page directly and fires all listeners. Should be called on the EDT.
+     * @param hint      the new available page
+     */
+    public void updateAvailablePage(HintDescriptor hint) {
+        if (!lastHint.equals(hint)) {
+            lastHint = hint;
+            TELEMETRY.record(hasPage() ? HintEvent.HINT_PUBLISHED : HintEvent.HINT_CLEARED, lastHint.hashCode());
+            LISTENERS.forEach((listener) -> listener.accept(lastHint));
+        }
+    }
+
+    /**
+     * Sets the available page if it was computed for the newest sketch. This keeps
+     * a slow result from replacing the result for a newer sketch. Should be called on the EDT.
+     * @param hint          the new available page
+     * @param generation    the generation of the sketch the hint was computed for
+     */
+    public void updateAvailablePage(HintDescriptor hint, long generation) {
+        if (generation == GENERATION.get()) {
+            updateAvailablePage(hint);
+        }
+    }
+
+    /**
+     * Sets the available page to a refined hint if the quick hint it refines is
+     * still the available page. Should be called on the EDT.
+     * @param quickHint     the quick hint that was refined
+     * @param refinedHint   the refined hint
+     * @param generation    the generation of the sketch the hint was refined for
+     */
+    public void replaceAvailablePage(HintDescriptor quickHint, HintDescriptor refinedHint, long generation) {
+        if (lastHint.equals(quickHint)) {
+            updateAvailablePage(refinedHint, generation);
+        }
+    }
+
+    /**
+     * Gets the hint for a row in the problem table, computing its quick hint if it
+     * hasn't been analyzed yet. A refined hint from an earlier sketch is used
+     * instead if the problem's tab hasn't changed. A problem that takes too long
+     * to analyze is left unanalyzed so it can be tried again later.
+     * @param table         the problem table for the last sketch
+     * @param row           the index of the row
+     * @param generation    the generation of the newest sketch
+     * @return the hint for the problem or empty if there is none or it took too long
+     * @throws AnalysisCancelledException if a newer sketch arrives during the analysis
+     */
+    private Optional<HintDescriptor> analyzeRow(ProblemTable table, int row, long generation) {
+        Optional<HintDescriptor> hint = table.getHint(row);
+        if (hint != null) {
+            return hint;
+        }
+
+        PreprocessedSketch sketch = lastSketch;
+        if (sketch == null || table != problemTable) {
+            return Optional.empty();
+        }
+
+        String explanation = table.getMessage(row);
+        Optional<HintDescriptor> refinedHint = getCachedTabHint(table, row);
+        if (refinedHint != null) {
+            hint = refinedHint.map((found) -> found.withExplanation(explanation));
+            table.setRefinedHint(row, hint);
+            releaseSketchIfComplete(table);
+            return hint;
+        }
+
+        hint = getErrorPageUrl(table.getRawProblem(sketch, row), sketch.compilationUnit, generation, false);
+        if (hint == null) {
+            return Optional.empty();
+        }
+
+        hint = hint.map((found) -> found.withExplanation(explanation));
+        table.setHint(row, hint);
+
+        return hint;
+    }
+
+    /**
+     * Gets the refined hint for a row in the problem table, analyzing the problem
+     * with bindings if it hasn't been refined yet. Releases the sketch once every
+     * row is refined. A problem that takes too long to refine keeps its quick hint
+     * and is tried again later, until it has run out of time a few times. Then its
+     * quick hint is kept for good, so a slow problem doesn't keep the AST alive.
+     * @param table         the problem table for the last sketch
+     * @param row           the index of the row
+     * @param generation    the generation of the newest sketch
+     * @return the refined hint for the problem or empty if there is none or it took too long
+     * @throws AnalysisCancelledException if a newer sketch arrives during the analysis
+     */
+    private Optional<HintDescriptor> refineRow(ProblemTable table, int row, long generation) {
+        if (table.isRefined(row)) {
+            return table.getHint(row);
+        }
+
+        PreprocessedSketch sketch = lastSketch;
+        if (sketch == null || table != problemTable) {
+            return Optional.empty();
+        }
+
+        String explanation = table.getMessage(row);
+        Optional<HintDescriptor> hint = getTabHint(table, row, sketch, generation);
+        if (hint == null) {
+            if (table.countRefinementTimeout(row) >= MAX_REFINEMENT_TIMEOUTS) {
+                table.settle(row);
+                releaseSketchIfComplete(table);
+            }
+
+            return Optional.empty();
+        }
+
+        hint = hint.map((found) -> found.withExplanation(explanation));
+        table.setRefinedHint(row, hint);
+        releaseSketchIfComplete(table);
+
+        return hint;
+    }
+
+    /**
+     * Forgets the types the assembler inferred from the sketch's AST, which
+     * would otherwise keep the AST from being garbage collected.
+     */
+    private void clearInferredTypes() {
+        ErrorURLAssembler assembler = urlAssembler;
+        if (assembler != null) {
+            assembler.clearInferredTypes();
+        }
+    }
+
+    /**
+     * Forgets the sketch once every row in its table is refined or settled, since the hints
+     * are all we need from it. This lets the AST be garbage collected.
+     * @param table     the problem table for the last sketch
+     */
+    private void releaseSketchIfComplete(ProblemTable table) {
+        if (table.isComplete()) {
+            lastSketch = null;
+            clearInferredTypes();
+        }
+    }
+
+    /**
+     * Discards the hint tables for tabs whose text changed. Tables for the other
+     * tabs are kept because their problems' offsets within the tab are the same.
+     * @param sketch    the new sketch
+     */
+    private void updateTabTables(PreprocessedSketch sketch) {
+        int tabCount = sketch.tabStartOffsets.length;
+
+        // Adding, removing, or renaming tabs can change the index of every tab
+        if (TAB_TABLES.size() != tabCount) {
+            TAB_TABLES.clear();
+        }
+
+        for (int tab = 0; tab < tabCount; tab++) {
+            int start = sketch.tabStartOffsets[tab];
+            int end = tab + 1 < tabCount ? sketch.tabStartOffsets[tab + 1] : sketch.pdeCode.length();
+            long fingerprint = TabHintTable.fingerprint(sketch.pdeCode, start, end);
+
+            if (tab >= TAB_TABLES.size()) {
+                TAB_TABLES.add(new TabHintTable(fingerprint));
+            } else if (!TAB_TABLES.get(tab).matches(fingerprint)) {
+                TAB_TABLES.set(tab, new TabHintTable(fingerprint));
+            }
+        }
     }
 
     /**
-     * Sets the available page directly and fires all listeners.
-     * @param url       the new available page
+     * Gets the refined hint for a problem that is already in its tab's table.
+     * @param table         the problem table for the sketch
+     * @param row           the index of the problem's row
+     * @return the refined hint, an empty if the problem has no hint, or null if
+     *         the problem hasn't been refined since its tab last changed
      */
-    public void updateAvailablePage(String url) {
-        if (!lastUrl.equals(url)) {
-            lastUrl = url;
-            LISTENERS.forEach((listener) -> listener.accept(lastUrl));
+    private Optional<HintDescriptor> getCachedTabHint(ProblemTable table, int row) {
+        int tab = table.getTabIndex(row);
+        if (tab >= TAB_TABLES.size()) {
+            return null;
         }
+
+        return TAB_TABLES.get(tab).get(table.getStartTabOffset(row), table.getStopTabOffset(row),
+                table.getProblemId(row), table.getProblemArguments(row));
     }
 
     /**
-     * Gets the URL for an error page based on a preprocessed compiler error.
+     * Gets the refined hint for a problem from its tab's table, analyzing the
+     * problem only if its tab has changed since it was last analyzed.
+     * @param table             the problem table for the sketch
+     * @param row               the index of the problem's row
+     * @param sketch            the sketch the problem is from
+     * @param generation        the generation of the sketch
+     * @return the hint for the matching error page, an empty if the error is
+     *         unknown, or null if it took too long to analyze
+     * @throws AnalysisCancelledException if a newer sketch arrives during the analysis
+     */
+    private Optional<HintDescriptor> getTabHint(ProblemTable table, int row, PreprocessedSketch sketch,
+                                                long generation) {
+        IProblem compilerError = table.getRawProblem(sketch, row);
+        int tab = table.getTabIndex(row);
+        if (tab >= TAB_TABLES.size()) {
+            return getErrorPageUrl(compilerError, sketch.compilationUnit, generation, true);
+        }
+
+        Optional<HintDescriptor> hint = getCachedTabHint(table, row);
+        if (hint == null) {
+            hint = getErrorPageUrl(compilerError, sketch.compilationUnit, generation, true);
+
+            // Only remember finished analysis so a problem that timed out is tried again
+            if (hint == null) {
+                return null;
+            }
+
+            TAB_TABLES.get(tab).put(table.getStartTabOffset(row), table.getStopTabOffset(row),
+                    table.getProblemId(row), table.getProblemArguments(row), hint);
+        }
+
+        return hint;
+    }
+
+    /**
+     * Gets the hint for an error page within the time limit for a single problem.
      * @param compilerError     the compiler error
      * @param ast               the abstract syntax tree root
-     * @return the URL for the matching error page or an empty if the error is unknown
+     * @param generation        the generation of the sketch the error is from
+     * @param resolveBindings   whether to refine the hint with bindings
+     * @return the hint for the matching error page, an empty if the error is
+     *         unknown, or null if it took too long to analyze
+     * @throws AnalysisCancelledException if a newer sketch arrives during the analysis
      */
-    private Optional<String> getErrorPageUrl(IProblem compilerError, ASTNode ast) {
+    private Optional<HintDescriptor> getErrorPageUrl(IProblem compilerError, ASTNode ast, long generation,
+                                                     boolean resolveBindings) {
+        AnalysisBudget budget = new AnalysisBudget(GENERATION, generation, PROBLEM_TIME_LIMIT);
+        getUrlAssembler().setBudget(budget);
+        urlAssembler.setResolvesBindings(resolveBindings);
+
+        try {
+            return getErrorPageUrl(compilerError, ast);
+        } catch (AnalysisCancelledException err) {
+
+            // Skip slow problems until the next pass, but stop all analysis of stale sketches
+            if (budget.isCancelled()) {
+                throw err;
+            }
+            return null;
+
+        } finally {
+            urlAssembler.setBudget(AnalysisBudget.UNLIMITED);
+            urlAssembler.setResolvesBindings(true);
+        }
+    }
+
+    /**
+     * Gets the hint for an error page based on a preprocessed compiler error.
+     * @param compilerError     the compiler error
+     * @param ast               the abstract syntax tree root
+     * @return the hint for the matching error page or an empty if the error is unknown
+     */
+    private Optional<HintDescriptor> getErrorPageUrl(IProblem compilerError, ASTNode ast) {
         String[] problemArguments = compilerError.getArguments();
         ASTNode problemNode = ASTUtils.getASTNodeAt(
                 ast,
@@ -131,46 +587,46 @@ public class ErrorListener {
 
         switch (compilerError.getID()) {
             case IProblem.MustDefineEitherDimensionExpressionsOrInitializer:
-                return URL_ASSEMBLER.getArrDimURL(problemNode);
+                return urlAssembler.getArrDimURL(problemNode);
             case IProblem.IllegalDimension:
-                return URL_ASSEMBLER.getTwoDimArrURL(problemNode);
+                return urlAssembler.getTwoDimArrURL(problemNode);
             case IProblem.CannotDefineDimensionExpressionsWithInit:
-                return URL_ASSEMBLER.getTwoInitializerArrURL(problemNode);
+                return urlAssembler.getTwoInitializerArrURL(problemNode);
             case IProblem.UndefinedMethod:
-                return URL_ASSEMBLER.getMissingMethodURL(problemNode);
+                return urlAssembler.getMissingMethodURL(problemNode);
             case IProblem.ParameterMismatch:
-                return URL_ASSEMBLER.getParamMismatchURL(problemArguments[0], problemNode);
+                return urlAssembler.getParamMismatchURL(problemArguments[0], problemNode);
             case IProblem.ShouldReturnValue:
-                return URL_ASSEMBLER.getMissingReturnURL(problemNode);
+                return urlAssembler.getMissingReturnURL(problemNode);
             case IProblem.TypeMismatch:
             case IProblem.ReturnTypeMismatch:
                 String providedType = problemArguments[0];
                 String requiredType = problemArguments[1];
-                return URL_ASSEMBLER.getTypeMismatchURL(providedType, requiredType, problemNode);
+                return urlAssembler.getTypeMismatchURL(providedType, requiredType, problemNode);
             case IProblem.UndefinedType:
-                return URL_ASSEMBLER.getMissingTypeURL(problemArguments[0], problemNode);
+                return urlAssembler.getMissingTypeURL(problemArguments[0], problemNode);
             case IProblem.UnresolvedVariable:
-                return URL_ASSEMBLER.getMissingVarURL(problemArguments[0], problemNode);
+                return urlAssembler.getMissingVarURL(problemArguments[0], problemNode);
             case IProblem.UninitializedLocalVariable:
-                return URL_ASSEMBLER.getUninitializedVarURL(problemArguments[0], problemNode);
+                return urlAssembler.getUninitializedVarURL(problemArguments[0], problemNode);
             case IProblem.StaticMethodRequested:
-                return URL_ASSEMBLER.getStaticErrorURL(problemArguments[0], problemArguments[1], problemNode);
+                return urlAssembler.getStaticErrorURL(problemArguments[0], problemArguments[1], problemNode);
             case IProblem.UndefinedField:
             case IProblem.UndefinedName:
-                return URL_ASSEMBLER.getVariableDeclaratorsURL(problemNode);
+                return urlAssembler.getVariableDeclaratorsURL(problemNode);
             case IProblem.ParsingErrorInsertToComplete:
                 List<String> argsList = Arrays.asList(problemArguments);
 
                 // Handle incorrect variable declaration
                 if (argsList.contains("VariableDeclarators")) {
-                    return URL_ASSEMBLER.getVariableDeclaratorsURL(problemNode);
+                    return urlAssembler.getVariableDeclaratorsURL(problemNode);
                 }
 
                 ASTNode parent = problemNode.getParent();
                 ASTNode grandparent = problemNode.getParent().getParent();
                 if (parent instanceof ArrayCreation || grandparent instanceof ArrayAccess || argsList.contains("Dimensions")
                         || (parent instanceof FieldDeclaration && ((FieldDeclaration) parent).getType().isArrayType())) {
-                    return URL_ASSEMBLER.getIncorrectVarDeclarationURL(problemNode);
+                    return urlAssembler.getIncorrectVarDeclarationURL(problemNode);
                 }
 
                 /* Incorrect control structures almost always have one of these statements as the
@@ -185,7 +641,7 @@ public class ErrorListener {
 
                           /* Issues with control structures are most likely integer-related,
                              and the type isn't usually given in the problem arguments. */
-                            return URL_ASSEMBLER.getUnexpectedTokenURL("int");
+                            return urlAssembler.getUnexpectedTokenURL("int");
 
                         }
                     }
@@ -193,55 +649,13 @@ public class ErrorListener {
 
                 break;
             case IProblem.ParsingErrorDeleteToken:
-                return URL_ASSEMBLER.getUnexpectedTokenURL(problemArguments[0]);
+                return urlAssembler.getUnexpectedTokenURL(problemArguments[0]);
             case IProblem.NoMessageSendOnBaseType:
             case IProblem.NoMessageSendOnArrayType:
-                return URL_ASSEMBLER.getMethodCallWrongTypeURL(problemArguments[0], problemArguments[1], problemNode);
+                return urlAssembler.getMethodCallWrongTypeURL(problemArguments[0], problemArguments[1], problemNode);
         }
 
         return Optional.empty();
     }
 
-    /**
-     * Tests if a problem already processed by the error checker and a raw problem are likely the same
-     * @param processedProblem      the problem processed by the error checker
-     * @param rawProblem            the raw problem from the compiler
-     * @param sketch                the current sketch
-     * @return whether the two problems are likely the same issue
-     */
-    private boolean problemEquals(Problem processedProblem, IProblem rawProblem, PreprocessedSketch sketch) {
-        PreprocessedSketch.SketchInterval rawProblemInterval = sketch.mapJavaToSketch(rawProblem);
-        if (rawProblemInterval == PreprocessedSketch.SketchInterval.BEFORE_START) {
-            return false;
-        }
-
-        String processedProblemCode = getPdeSnippet(
-                sketch.pdeCode,
-                processedProblem.getStartOffset(),
-                processedProblem.getStopOffset()
-        );
-        String rawProblemCode = sketch.getPdeCode(rawProblemInterval);
-        boolean isSameCode = processedProblemCode.equals(rawProblemCode);
-
-        boolean isSameMessage = processedProblem.getMessage().equals(
-                ErrorMessageSimplifier.getSimplifiedErrorMessage(rawProblem, rawProblemCode)
-        );
-
-        return isSameCode && isSameMessage;
-    }
-
-    /**
-     * Gets a code snippet from problem offsets.
-     * @param fullPdeCode   the full code inside the editor
-     * @param startOffset   the start offset of the snippet
-     * @param endOffset     the end offset of the snippet
-     * @return the code snippet from the editor
-     */
-    private String getPdeSnippet(String fullPdeCode, int startOffset, int endOffset) {
-        if (startOffset == -1 || endOffset == -1) return "";
-        int stop = Math.min(endOffset, fullPdeCode.length());
-        int start = Math.min(startOffset, stop);
-        return fullPdeCode.substring(start, stop);
-    }
-
 }
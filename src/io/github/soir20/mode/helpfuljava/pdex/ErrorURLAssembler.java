@@ -9,9 +9,12 @@ import org.eclipse.jdt.core.dom.BooleanLiteral;
 import org.eclipse.jdt.core.dom.CastExpression;
 import org.eclipse.jdt.core.dom.CharacterLiteral;
 import org.eclipse.jdt.core.dom.ConditionalExpression;
+import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.ExpressionStatement;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IMethodBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
 import org.eclipse.jdt.core.dom.InfixExpression;
 import org.eclipse.jdt.core.dom.InstanceofExpression;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
@@ -21,78 +24,112 @@ import org.eclipse.jdt.core.dom.NumberLiteral;
 import org.eclipse.jdt.core.dom.PostfixExpression;
 import org.eclipse.jdt.core.dom.PrefixExpression;
 import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jdt.core.dom.StringLiteral;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
-import processing.app.SketchException;
-import processing.app.syntax.JEditTextArea;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
- * Creates URLs for errors based on the AST.
+ * Creates hints for errors based on the AST. Hints are returned as
+ * {@link HintDescriptor}s and only encoded as URLs by a {@link HintUrlEncoder}
+ * when a page is loaded. This class pulls in much of the JDT DOM, so it should
+ * only be created once there is an error to analyze. Resolving bindings is the
+ * slowest part of the analysis, so it can be turned off to get a quick hint
+ * from the syntax alone. Bindings that can't be resolved in broken code fall
+ * back to the same syntactic guesses. Inferred types are remembered for the
+ * current AST in an {@link InferredTypeTable}.
  * @author soir20
  */
 public class ErrorURLAssembler {
-    private static final String URL = "http://139.147.9.247/";
-    private final Map<String, String> GLOBAL_PARAMS;
+    private static final int CHARS_PER_BUDGET_CHECK = 4096;
+    private final Map<Class<?>, BiFunction<String, ASTNode, String>> TYPE_GETTERS;
+    private AnalysisBudget budget;
+    private boolean isResolvingBindings;
+    private volatile InferredTypeTable inferredTypes;
 
     /**
      * Creates a new URL assembler.
-     * @param embedded      whether the pages will be embedded
-     * @param fontSize      the base font size in points to use in the page
      */
-    public ErrorURLAssembler(boolean embedded, int fontSize) {
-        GLOBAL_PARAMS = new HashMap<>();
-        if (embedded) {
-            GLOBAL_PARAMS.put("embed", "true");
-            setFontSize(fontSize);
-        }
+    public ErrorURLAssembler() {
+        budget = AnalysisBudget.UNLIMITED;
+        isResolvingBindings = true;
+
+        TYPE_GETTERS = new HashMap<>();
+        TYPE_GETTERS.put(PrefixExpression.class, this::getTypeFromPrefixExpression);
+        TYPE_GETTERS.put(InfixExpression.class, this::getTypeFromInfixExpression);
+        TYPE_GETTERS.put(PostfixExpression.class, this::getTypeFromPostfixExpression);
+        TYPE_GETTERS.put(ConditionalExpression.class, this::getTypeFromConditionalExpression);
+        TYPE_GETTERS.put(InstanceofExpression.class, this::getTypeFromInstanceOf);
+        TYPE_GETTERS.put(VariableDeclarationFragment.class, this::getTypeFromVarDeclaration);
+        TYPE_GETTERS.put(ArrayCreation.class, this::getTypeFromArrayCreation);
+        TYPE_GETTERS.put(ArrayAccess.class, this::getTypeFromArrayAccess);
+        TYPE_GETTERS.put(ArrayInitializer.class, this::getTypeFromArrayInitializer);
+        TYPE_GETTERS.put(CastExpression.class, this::getTypeFromCastExpression);
+        TYPE_GETTERS.put(MethodInvocation.class, this::getTypeFromMethodInvocation);
+        TYPE_GETTERS.put(Assignment.class, this::getTypeFromAssignment);
+        TYPE_GETTERS.put(ExpressionStatement.class, this::getTypeFromExpressionStatement);
+        TYPE_GETTERS.put(CharacterLiteral.class, (name, node) -> "char");
+        TYPE_GETTERS.put(BooleanLiteral.class, (name, node) -> "boolean");
+        TYPE_GETTERS.put(NumberLiteral.class, this::getTypeFromNumberLiteral);
+        TYPE_GETTERS.put(StringLiteral.class, (name, node) -> "String");
+        TYPE_GETTERS.put(NullLiteral.class, (name, node) -> "Object");
+    }
+
+    /**
+     * Sets the budget for the analysis that is about to run. The long walks in this
+     * class check it and throw an {@link AnalysisCancelledException} when it runs out.
+     * The assembler is only used on the hint thread, so there is only one budget.
+     * @param newBudget     the budget for the next analysis
+     */
+    public void setBudget(AnalysisBudget newBudget) {
+        budget = newBudget;
     }
 
     /**
-     * Sets the base font size to use in the page.
-     * @param newSize       the new base font size to use in the page
+     * Sets whether the next analysis resolves bindings. Without bindings, types
+     * are guessed from the syntax, which is much faster but less accurate.
+     * @param resolveBindings   whether to resolve bindings
      */
-    public void setFontSize(int newSize) {
-        GLOBAL_PARAMS.put("fontsize", String.valueOf(newSize));
+    public void setResolvesBindings(boolean resolveBindings) {
+        isResolvingBindings = resolveBindings;
     }
 
     /**
-     * Gets the base URL for all pages without parameters.
-     * @return  the base URL without parameters
+     * Forgets the types inferred from the last AST so it can be garbage collected.
+     * Can be called on any thread.
      */
-    public String getBaseUrl() {
-        return URL;
+    public void clearInferredTypes() {
+        inferredTypes = null;
     }
 
     /**
-     * Gets the default URL for the reference.
-     * @return the default URL for the reference
+     * Gets how many inferred types were reused for the current AST instead of
+     * being inferred again.
+     * @return the number of reused types
      */
-    public String getDefaultUrl() {
-        return URL + getGlobalParams(true);
+    public int getInferredTypeHits() {
+        InferredTypeTable table = inferredTypes;
+        return table == null ? 0 : table.getHits();
     }
 
     /**
      * Gets the URL for an extra right curly brace.
      * @param textAboveError    all text in the editor at and above the
      *                          line with the extra brace
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getClosingCurlyBraceURL(String textAboveError) {
+    public Optional<HintDescriptor> getClosingCurlyBraceURL(String textAboveError) {
 
         // We want to find a block before the extraneous brace
         int endIndex = textAboveError.lastIndexOf('}');
@@ -107,26 +144,17 @@ public class ErrorURLAssembler {
                 + "\n  /* your code */\n" + textAboveError.substring(rightBraceIndex, endIndex + 1);
         String correctedSnippet = mismatchedSnippet.substring(0, mismatchedSnippet.length() - 1);
 
-        try {
-            mismatchedSnippet = URLEncoder.encode(mismatchedSnippet, "UTF-8");
-            correctedSnippet = URLEncoder.encode(correctedSnippet, "UTF-8");
-        } catch (UnsupportedEncodingException err) {
-            return Optional.empty();
-        }
-
-        return Optional.of(URL + "extraneousclosingcurlybrace?original=" + mismatchedSnippet
-                + "&fixed=" + correctedSnippet + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.EXTRANEOUS_CLOSING_CURLY_BRACE,
+                mismatchedSnippet, correctedSnippet));
     }
 
     /**
      * Gets the URL for an incorrect variable declaration.
-     * @param textArea      text area for the file that contains the error
-     * @param exception     incorrect declaration exception from compilation
-     * @return the URL with path and parameters for the corresponding page
+     * @param code          text of the file that contains the error
+     * @param errorIndex    index of the incorrect declaration in the text
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getIncorrectVarDeclarationURL(JEditTextArea textArea, SketchException exception) {
-        int errorIndex = textArea.getLineStartOffset(exception.getCodeLine()) + exception.getCodeColumn() - 1;
-        String code = textArea.getText();
+    public Optional<HintDescriptor> getIncorrectVarDeclarationURL(String code, int errorIndex) {
         String declarationStatement = code.substring(errorIndex);
         int statementEndIndex = declarationStatement.indexOf(';', errorIndex);
         if (statementEndIndex >= 0) {
@@ -153,6 +181,7 @@ public class ErrorURLAssembler {
         boolean hasIdentifierEnded = false;
         StringBuilder arrType = new StringBuilder();
         while (currentIndex >= 0 && !hasIdentifierEnded) {
+            budget.check();
             String currentChar = beforeErrorText.substring(currentIndex, currentIndex + 1);
 
             if (!currentChar.matches("[\\s\\[\\]]")) {
@@ -164,16 +193,16 @@ public class ErrorURLAssembler {
             currentIndex--;
         }
 
-        return Optional.of(URL + "incorrectvariabledeclaration?typename=" + trimType(arrType.toString())
-                + "&foundname=" + arrName + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.INCORRECT_VARIABLE_DECLARATION,
+                trimType(arrType.toString()), arrName));
     }
 
     /**
      * Gets the URL for an incorrect variable declaration.
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getIncorrectVarDeclarationURL(ASTNode problemNode) {
+    public Optional<HintDescriptor> getIncorrectVarDeclarationURL(ASTNode problemNode) {
         Optional<VariableDeclarationFragment> fragmentOptional = findDeclarationFragment(problemNode);
         if (!fragmentOptional.isPresent()) {
             return Optional.empty();
@@ -182,19 +211,20 @@ public class ErrorURLAssembler {
         VariableDeclarationFragment fragment = fragmentOptional.get();
 
         String arrName = fragment.getName().toString();
-        String arrType = trimType(getElementType(fragment.resolveBinding().getType().toString()));
+        IVariableBinding varBinding = isResolvingBindings ? fragment.resolveBinding() : null;
+        String declaredType = varBinding == null ? getDeclaredType(fragment) : varBinding.getType().toString();
+        String arrType = trimType(getElementType(declaredType));
 
-        return Optional.of(URL + "incorrectvariabledeclaration?typename=" + arrType
-                + "&foundname=" + arrName + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.INCORRECT_VARIABLE_DECLARATION, arrType, arrName));
     }
 
     /**
      * Gets the URL for an incorrect method declaration.
      * @param textAboveError      all text in the editor at and above the
      *                            line with error
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getIncorrectMethodDeclarationURL(String textAboveError) {
+    public Optional<HintDescriptor> getIncorrectMethodDeclarationURL(String textAboveError) {
         int lastOpenParenthesisIndex = textAboveError.lastIndexOf('(');
 
         int currentCharIndex = lastOpenParenthesisIndex;
@@ -210,15 +240,15 @@ public class ErrorURLAssembler {
 
         String methodName = textAboveError.substring(currentCharIndex, lastOpenParenthesisIndex);
 
-        return Optional.of(URL + "incorrectmethoddeclaration?methodname=" + methodName + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.INCORRECT_METHOD_DECLARATION, methodName));
     }
 
     /**
      * Gets the URL for a missing array dimension.
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getArrDimURL(ASTNode problemNode) {
+    public Optional<HintDescriptor> getArrDimURL(ASTNode problemNode) {
         Optional<VariableDeclarationFragment> fragmentOptional = findDeclarationFragment(problemNode);
         if (!fragmentOptional.isPresent()) {
             return Optional.empty();
@@ -227,17 +257,15 @@ public class ErrorURLAssembler {
         String arrType = trimType(problemNode.toString());
         String arrName = fragmentOptional.get().getName().toString();
 
-        return Optional.of(URL + "incorrectdimensionexpression1?typename=" + arrType
-                + "&arrname=" + arrName
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.MISSING_ARRAY_DIMENSION, arrType, arrName));
     }
 
     /**
      * Gets the URL when the first of two array dimensions is missing.
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getTwoDimArrURL(ASTNode problemNode) {
+    public Optional<HintDescriptor> getTwoDimArrURL(ASTNode problemNode) {
         ASTNode parent = problemNode.getParent();
         Optional<VariableDeclarationFragment> fragmentOptional = findDeclarationFragment(problemNode);
         if (!(parent instanceof ArrayCreation) || !fragmentOptional.isPresent()) {
@@ -247,17 +275,15 @@ public class ErrorURLAssembler {
         String arrType = trimType(getElementType(((ArrayCreation) parent).getType().toString()));
         String arrName = fragmentOptional.get().getName().toString();
 
-        return Optional.of(URL + "incorrectdimensionexpression2?typename=" + arrType
-                + "&arrname=" + arrName
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.MISSING_FIRST_ARRAY_DIMENSION, arrType, arrName));
     }
 
     /**
      * Gets the URL for the use of two array initializers at once.
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getTwoInitializerArrURL(ASTNode problemNode) {
+    public Optional<HintDescriptor> getTwoInitializerArrURL(ASTNode problemNode) {
         ASTNode parent = problemNode.getParent();
         Optional<VariableDeclarationFragment> fragmentOptional = findDeclarationFragment(problemNode);
         if (!(parent instanceof ArrayCreation) || !fragmentOptional.isPresent()) {
@@ -267,17 +293,15 @@ public class ErrorURLAssembler {
         String arrType = trimType(getElementType(((ArrayCreation) parent).getType().toString()));
         String arrName = fragmentOptional.get().getName().toString();
 
-        return Optional.of(URL + "incorrectdimensionexpression3?typename=" + arrType
-                + "&arrname=" + arrName
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.TWO_ARRAY_INITIALIZERS, arrType, arrName));
     }
 
     /**
      * Gets the URL for a missing method.
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getMissingMethodURL(ASTNode problemNode) {
+    public Optional<HintDescriptor> getMissingMethodURL(ASTNode problemNode) {
         ASTNode parent = problemNode.getParent();
         if (!(parent instanceof MethodInvocation)) {
             return Optional.empty();
@@ -294,30 +318,17 @@ public class ErrorURLAssembler {
         String returnType = getClosestExpressionType(invocation.getParent());
         String dummyCorrectName = "correctName";
 
-        String encodedParams;
-        String encodedTypes;
-        try {
-            encodedParams = URLEncoder.encode(String.join(",", providedParams), "UTF-8");
-            encodedTypes = URLEncoder.encode(String.join(",", providedParamTypes), "UTF-8");
-        } catch (UnsupportedEncodingException err) {
-            return Optional.empty();
-        }
-
-        return Optional.of(URL + "methodnotfound?methodname=" + methodName
-                + "&correctmethodname=" + dummyCorrectName
-                + "&typename=" + trimType(returnType)
-                + "&providedparams=" + encodedParams
-                + "&providedtypes=" + encodedTypes
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.METHOD_NOT_FOUND, methodName, dummyCorrectName,
+                trimType(returnType), String.join(",", providedParams), String.join(",", providedParamTypes)));
     }
 
     /**
      * Gets the URL for a parameter mismatch in a method call.
      * @param fileName          sketch where the method resides
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getParamMismatchURL(String fileName, ASTNode problemNode) {
+    public Optional<HintDescriptor> getParamMismatchURL(String fileName, ASTNode problemNode) {
         ASTNode parent = problemNode.getParent();
         if (!(parent instanceof MethodInvocation)) {
             return Optional.empty();
@@ -327,59 +338,48 @@ public class ErrorURLAssembler {
         List<String> providedParamTypes = ((List<?>) invocation.arguments()).stream().map(
                 (param) -> trimType(getClosestExpressionType((ASTNode) param))
         ).collect(Collectors.toList());
-        List<String> requiredParamTypes = Arrays.stream(
-                invocation.resolveMethodBinding().getParameterTypes()
-        ).map((binding) -> trimType(binding.getName())).collect(Collectors.toList());
-
         String methodName = invocation.getName().toString();
-        String methodReturnType = invocation.resolveMethodBinding().getReturnType().toString();
-
-        String encodedProvidedTypes;
-        String encodedRequiredTypes;
-        try {
-            encodedProvidedTypes = URLEncoder.encode(String.join(",", providedParamTypes), "UTF-8");
-            encodedRequiredTypes = URLEncoder.encode(String.join(",", requiredParamTypes), "UTF-8");
-        } catch (UnsupportedEncodingException err) {
-            return Optional.empty();
+
+        // The required types and return type are left out of the URL without bindings
+        String requiredParamTypes = null;
+        String methodReturnType = null;
+        IMethodBinding methodBinding = resolveMethodBinding(invocation);
+        if (methodBinding != null) {
+            requiredParamTypes = Arrays.stream(methodBinding.getParameterTypes()).map(
+                    (binding) -> trimType(binding.getName())
+            ).collect(Collectors.joining(","));
+            methodReturnType = methodBinding.getReturnType().toString();
         }
 
-        return Optional.of(URL + "parametermismatch?classname=" + fileName
-                + "&methodname=" + methodName
-                + "&methodtypename=" + methodReturnType
-                + "&providedtypes=" + encodedProvidedTypes
-                + "&requiredtypes=" + encodedRequiredTypes
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.PARAMETER_MISMATCH, fileName, methodName, methodReturnType,
+                String.join(",", providedParamTypes), requiredParamTypes));
     }
 
     /**
      * Gets the URL for a missing return statement in a method.
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getMissingReturnURL(ASTNode problemNode) {
+    public Optional<HintDescriptor> getMissingReturnURL(ASTNode problemNode) {
         ASTNode parent = problemNode.getParent();
         if (!(parent instanceof MethodDeclaration)) {
             return Optional.empty();
         }
 
         MethodDeclaration declaration = (MethodDeclaration) parent;
-        List<String> requiredParamTypes = Arrays.stream(
-                declaration.resolveBinding().getParameterTypes()
-        ).map((binding) -> trimType(binding.getName())).collect(Collectors.toList());
+        IMethodBinding methodBinding = isResolvingBindings ? declaration.resolveBinding() : null;
+        List<String> requiredParamTypes = methodBinding == null
+                ? ((List<?>) declaration.parameters()).stream().map(
+                        (param) -> trimType(((SingleVariableDeclaration) param).getType().toString())
+                ).collect(Collectors.toList())
+                : Arrays.stream(methodBinding.getParameterTypes()).map(
+                        (binding) -> trimType(binding.getName())
+                ).collect(Collectors.toList());
         String methodName = declaration.getName().toString();
         String methodReturnType = trimType(declaration.getReturnType2().toString());
 
-        String encodedTypes;
-        try {
-            encodedTypes = URLEncoder.encode(String.join(",", requiredParamTypes), "UTF-8");
-        } catch (UnsupportedEncodingException err) {
-            return Optional.empty();
-        }
-
-        return Optional.of(URL + "returnmissing?methodname=" + methodName
-                + "&typename=" + methodReturnType
-                + "&requiredtypes=" + encodedTypes
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.RETURN_MISSING, methodName, methodReturnType,
+                String.join(",", requiredParamTypes)));
     }
 
     /**
@@ -387,24 +387,22 @@ public class ErrorURLAssembler {
      * @param providedType      the type provided by the programmer
      * @param requiredType      the type required by the method
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getTypeMismatchURL(String providedType, String requiredType, ASTNode problemNode) {
+    public Optional<HintDescriptor> getTypeMismatchURL(String providedType, String requiredType, ASTNode problemNode) {
         Optional<VariableDeclarationFragment> declaration = findDeclarationFragment(problemNode);
         String varName = declaration.map((fragment) -> fragment.getName().toString()).orElse("example");
-        return Optional.of(URL + "typemismatch?typeonename=" + trimType(providedType)
-                + "&typetwoname=" + trimType(requiredType)
-                + "&varname=" + varName
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.TYPE_MISMATCH,
+                trimType(providedType), trimType(requiredType), varName));
     }
 
     /**
      * Gets the URL for a missing type.
      * @param missingType       name of the missing type
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getMissingTypeURL(String missingType, ASTNode problemNode) {
+    public Optional<HintDescriptor> getMissingTypeURL(String missingType, ASTNode problemNode) {
         String varName = "example";
 
         // All variables in the statement will be the same type, so use the first as an example
@@ -416,48 +414,42 @@ public class ErrorURLAssembler {
 
         String dummyCorrectName = "CorrectName";
 
-        return Optional.of(URL + "typenotfound?classname=" + trimType(missingType)
-                + "&correctclassname=" + dummyCorrectName
-                + "&varname=" + varName
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.TYPE_NOT_FOUND, trimType(missingType), dummyCorrectName, varName));
     }
 
     /**
      * Gets the URL for a missing variable.
      * @param varName           name of the missing variable
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getMissingVarURL(String varName, ASTNode problemNode) {
+    public Optional<HintDescriptor> getMissingVarURL(String varName, ASTNode problemNode) {
         String varType = trimType(getClosestExpressionType(varName, problemNode.getParent()));
-        return Optional.of(URL + "variablenotfound?classname=" + varType + "&varname=" + varName + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.VARIABLE_NOT_FOUND, varType, varName));
     }
 
     /**
      * Gets the URL for an uninitialized variable.
      * @param varName           name of the uninitialized variable
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getUninitializedVarURL(String varName, ASTNode problemNode) {
-        String params = "?varname=" + varName;
+    public Optional<HintDescriptor> getUninitializedVarURL(String varName, ASTNode problemNode) {
         String type = getClosestExpressionType(varName, problemNode.getParent());
-        params += "&typename=" + trimType(type);
-
-        return Optional.of(URL + "variablenotinit" + params + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.VARIABLE_NOT_INITIALIZED, varName, trimType(type)));
     }
 
     /**
      * Gets the URL for an unexpected type name.
      * @param typeName      the unexpected type name
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getUnexpectedTokenURL(String typeName) {
+    public Optional<HintDescriptor> getUnexpectedTokenURL(String typeName) {
         if (!couldBeType(typeName)) {
             return Optional.empty();
         }
 
-        return Optional.of(URL + "unexpectedtoken?typename=" + trimType(typeName) + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.UNEXPECTED_TOKEN, trimType(typeName)));
     }
 
     /**
@@ -465,34 +457,37 @@ public class ErrorURLAssembler {
      * @param fileName          name of the file where the error is located
      * @param nonStaticMethod   name of the non-static method
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getStaticErrorURL(String fileName, String nonStaticMethod, ASTNode problemNode) {
-        String params = "?methodname=" + nonStaticMethod;
-
+    public Optional<HintDescriptor> getStaticErrorURL(String fileName, String nonStaticMethod, ASTNode problemNode) {
         Optional<MethodDeclaration> declaration = findClosestNode(problemNode, MethodDeclaration.class);
         Optional<MethodInvocation> invocation = findClosestNode(problemNode, MethodInvocation.class);
 
+        // Parameters we can't find are left out of the URL
+        String staticMethodName = null;
+        String staticMethodReturnType = null;
+        String methodReturnType = null;
+
         if (declaration.isPresent()) {
-            params += "&staticmethodname=" + declaration.get().getName().toString();
-            params += "&staticmethodreturntype=" + declaration.get().getReturnType2().toString();
+            staticMethodName = declaration.get().getName().toString();
+            staticMethodReturnType = declaration.get().getReturnType2().toString();
         }
 
-        if (invocation.isPresent()) {
-            params += "&methodreturntype=" + invocation.get().resolveMethodBinding().getReturnType().toString();
+        IMethodBinding methodBinding = invocation.map(this::resolveMethodBinding).orElse(null);
+        if (methodBinding != null) {
+            methodReturnType = methodBinding.getReturnType().toString();
         }
 
-        params += "&filename=" + fileName;
-
-        return Optional.of(URL + "nonstaticfromstatic" + params + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.NON_STATIC_FROM_STATIC, nonStaticMethod,
+                staticMethodName, staticMethodReturnType, methodReturnType, fileName));
     }
 
     /**
      * Gets the URL for a VariableDeclarators error.
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getVariableDeclaratorsURL(ASTNode problemNode) {
+    public Optional<HintDescriptor> getVariableDeclaratorsURL(ASTNode problemNode) {
         String methodName = problemNode.toString();
 
         ASTNode parent = problemNode.getParent();
@@ -501,9 +496,7 @@ public class ErrorURLAssembler {
         }
 
         String typeName = getClosestExpressionType(problemNode.getParent());
-        String params = "?methodonename=" + methodName + "&typename=" + typeName;
-
-        return Optional.of(URL + "syntaxerrorvariabledeclarators" + params + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.VARIABLE_DECLARATORS, methodName, typeName));
     }
 
     /**
@@ -511,9 +504,9 @@ public class ErrorURLAssembler {
      * @param type              the type of variable the method was invoked on
      * @param methodName        the name of the method that was invoked
      * @param problemNode       node of the AST where the problem occurred
-     * @return the URL with path and parameters for the corresponding page
+     * @return the hint for the corresponding page
      */
-    public Optional<String> getMethodCallWrongTypeURL(String type, String methodName, ASTNode problemNode) {
+    public Optional<HintDescriptor> getMethodCallWrongTypeURL(String type, String methodName, ASTNode problemNode) {
         String variableName = problemNode.toString();
 
         String returnType = "void";
@@ -526,17 +519,14 @@ public class ErrorURLAssembler {
                It's not extremely important for the return type to be correct since it is not the
                crux of the compiler error. */
             if (!(invocationParent instanceof ExpressionStatement) ||
-                    ((ExpressionStatement) invocationParent).getExpression().resolveTypeBinding() != null) {
+                    resolveTypeBinding(((ExpressionStatement) invocationParent).getExpression()) != null) {
                 returnType = getClosestExpressionType(incorrectInvocation.get().getParent());
             }
 
         }
 
-        return Optional.of(URL + "methodcallonwrongtype?methodname=" + methodName
-                + "&returntype=" + returnType
-                + "&typename=" + trimType(type)
-                + "&varname" + variableName
-                + getGlobalParams(false));
+        return Optional.of(HintDescriptor.of(PageKind.METHOD_CALL_ON_WRONG_TYPE,
+                methodName, returnType, trimType(type), variableName));
     }
 
     /**
@@ -590,7 +580,13 @@ public class ErrorURLAssembler {
         }
 
         // Find the matching brace
+        int charsSinceCheck = 0;
         while (neededLeftBraces != 0 && previousIndex.get() > 0 && previousIndex.get() < code.length() - 1) {
+            if (++charsSinceCheck == CHARS_PER_BUDGET_CHECK) {
+                budget.check();
+                charsSinceCheck = 0;
+            }
+
             moveToNextIndex.run();
 
             char nextChar = code.charAt(previousIndex.get());
@@ -622,6 +618,7 @@ public class ErrorURLAssembler {
         int currentIndex = 0;
         int lastCommaIndex = -1;
         while (currentIndex < declarationStatement.length()) {
+            budget.check();
             char currentChar = declarationStatement.charAt(currentIndex);
             if (currentChar == '{') {
 
@@ -653,6 +650,7 @@ public class ErrorURLAssembler {
     private <T> Optional<T> findClosestNode(ASTNode problemNode, Class<T> nodeClass) {
         ASTNode node = problemNode;
         while (node != null) {
+            budget.check();
             if (nodeClass.isInstance(node)) {
                 return Optional.of(nodeClass.cast(node));
             }
@@ -670,6 +668,7 @@ public class ErrorURLAssembler {
     private Optional<VariableDeclarationFragment> findDeclarationFragment(ASTNode problemNode) {
         ASTNode node = problemNode;
         while (node != null) {
+            budget.check();
             if (node instanceof VariableDeclarationFragment) {
                 return Optional.of((VariableDeclarationFragment) node);
             }
@@ -709,41 +708,48 @@ public class ErrorURLAssembler {
      * @return the type of the variable missing; defaults to "Object"
      */
     private String getClosestExpressionType(String missingVar, ASTNode problemNode) {
-        Map<Class<?>, BiFunction<String, ASTNode, String>> typeGetters = new HashMap<>();
-        typeGetters.put(PrefixExpression.class, this::getTypeFromPrefixExpression);
-        typeGetters.put(InfixExpression.class, this::getTypeFromInfixExpression);
-        typeGetters.put(PostfixExpression.class, this::getTypeFromPostfixExpression);
-        typeGetters.put(ConditionalExpression.class, this::getTypeFromConditionalExpression);
-        typeGetters.put(InstanceofExpression.class, this::getTypeFromInstanceOf);
-        typeGetters.put(VariableDeclarationFragment.class, this::getTypeFromVarDeclaration);
-        typeGetters.put(ArrayCreation.class, this::getTypeFromArrayCreation);
-        typeGetters.put(ArrayAccess.class, this::getTypeFromArrayAccess);
-        typeGetters.put(ArrayInitializer.class, this::getTypeFromArrayInitializer);
-        typeGetters.put(CastExpression.class, this::getTypeFromCastExpression);
-        typeGetters.put(MethodInvocation.class, this::getTypeFromMethodInvocation);
-        typeGetters.put(Assignment.class, this::getTypeFromAssignment);
-        typeGetters.put(ExpressionStatement.class, this::getTypeFromExpressionStatement);
-        typeGetters.put(CharacterLiteral.class, (name, node) -> "char");
-        typeGetters.put(BooleanLiteral.class, (name, node) -> "boolean");
-        typeGetters.put(NumberLiteral.class, (name, node) -> ((NumberLiteral) node).resolveTypeBinding().getName());
-        typeGetters.put(StringLiteral.class, (name, node) -> "String");
-        typeGetters.put(NullLiteral.class, (name, node) -> "Object");
-
-        Set<Class<?>> supportedExpressions = typeGetters.keySet();
-
         ASTNode node = problemNode;
         while (node != null) {
-            for (Class<?> expressionType : supportedExpressions) {
-                if (expressionType.isInstance(node)) {
-                    return typeGetters.get(expressionType).apply(missingVar, node);
-                }
+            budget.check();
+
+            // All of the supported expressions are concrete classes, so we can look up the exact class
+            BiFunction<String, ASTNode, String> typeGetter = TYPE_GETTERS.get(node.getClass());
+            if (typeGetter != null) {
+                return getInferredType(typeGetter, missingVar, node);
             }
+
             node = node.getParent();
         }
 
         return "Object";
     }
 
+    /**
+     * Gets the type of a variable from its closest typed expression, only inferring
+     * it the first time for the current AST.
+     * @param typeGetter        infers the type from the expression
+     * @param varName           the name of the variable
+     * @param expression        the closest typed expression to the variable
+     * @return the type of the variable
+     */
+    private String getInferredType(BiFunction<String, ASTNode, String> typeGetter, String varName,
+                                   ASTNode expression) {
+        ASTNode root = expression.getRoot();
+        InferredTypeTable table = inferredTypes;
+        if (table == null || !table.isFor(root)) {
+            table = new InferredTypeTable(root);
+            inferredTypes = table;
+        }
+
+        String type = table.get(expression, varName, isResolvingBindings);
+        if (type == null) {
+            type = typeGetter.apply(varName, expression);
+            table.put(expression, varName, isResolvingBindings, type);
+        }
+
+        return type;
+    }
+
     /**
      * Gets the type of a missing variable from a prefix expression.
      * @param varName           name of the missing variable
@@ -776,10 +782,12 @@ public class ErrorURLAssembler {
         InfixExpression infix = (InfixExpression) infixExpression;
 
         // Guess the type based on the other operand
-        if (infix.getLeftOperand() != null && infix.getLeftOperand().resolveTypeBinding() != null) {
-            return infix.getLeftOperand().resolveTypeBinding().getName();
-        } else if (infix.getRightOperand() != null && infix.getRightOperand().resolveTypeBinding() != null) {
-            return infix.getRightOperand().resolveTypeBinding().getName();
+        ITypeBinding leftBinding = resolveTypeBinding(infix.getLeftOperand());
+        ITypeBinding rightBinding = resolveTypeBinding(infix.getRightOperand());
+        if (leftBinding != null) {
+            return leftBinding.getName();
+        } else if (rightBinding != null) {
+            return rightBinding.getName();
         }
 
         InfixExpression.Operator[] booleanOperators = {
@@ -848,7 +856,8 @@ public class ErrorURLAssembler {
      */
     private String getTypeFromVarDeclaration(String varName, ASTNode varDeclaration) {
         VariableDeclarationFragment declaration = (VariableDeclarationFragment) varDeclaration;
-        return declaration.resolveBinding().getType().getName();
+        IVariableBinding binding = isResolvingBindings ? declaration.resolveBinding() : null;
+        return binding == null ? trimType(getDeclaredType(declaration)) : binding.getType().getName();
     }
 
     /**
@@ -859,13 +868,13 @@ public class ErrorURLAssembler {
      */
     private String getTypeFromMethodInvocation(String varName, ASTNode methodInvocation) {
         MethodInvocation invocation = (MethodInvocation) methodInvocation;
-        if (invocation.resolveMethodBinding() == null) {
+        IMethodBinding binding = resolveMethodBinding(invocation);
+        if (binding == null) {
             return "Object";
         }
 
-        List<String> requiredParamTypes = Arrays.stream(
-                invocation.resolveMethodBinding().getParameterTypes()
-        ).map(ITypeBinding::getName).collect(Collectors.toList());
+        List<String> requiredParamTypes = Arrays.stream(binding.getParameterTypes())
+                .map(ITypeBinding::getName).collect(Collectors.toList());
         List<String> providedParams = ((List<?>) invocation.arguments()).stream()
                 .map(Object::toString).collect(Collectors.toList());
 
@@ -901,12 +910,12 @@ public class ErrorURLAssembler {
      * @return the type of the missing variable
      */
     private String getTypeFromArrayInitializer(String varName, ASTNode arrayInitializer) {
-        ArrayInitializer initializer = (ArrayInitializer) arrayInitializer;
-        if (initializer.resolveTypeBinding() == null) {
+        ITypeBinding binding = resolveTypeBinding((ArrayInitializer) arrayInitializer);
+        if (binding == null) {
             return "Object";
         }
 
-        return getElementType(initializer.resolveTypeBinding().getName());
+        return getElementType(binding.getName());
     }
 
     /**
@@ -927,12 +936,12 @@ public class ErrorURLAssembler {
      * @return the type of the missing variable
      */
     private String getTypeFromAssignment(String varName, ASTNode assignmentExpression) {
-        Assignment assignment = (Assignment) assignmentExpression;
-        if (assignment.resolveTypeBinding() == null) {
+        ITypeBinding binding = resolveTypeBinding((Assignment) assignmentExpression);
+        if (binding == null) {
             return "Object";
         }
 
-        return assignment.resolveTypeBinding().getName();
+        return binding.getName();
     }
 
     /**
@@ -942,12 +951,83 @@ public class ErrorURLAssembler {
      * @return the type of the missing variable
      */
     private String getTypeFromExpressionStatement(String varName, ASTNode expressionStatement) {
-        ExpressionStatement statement = (ExpressionStatement) expressionStatement;
-        if (statement.getExpression() == null || statement.getExpression().resolveTypeBinding() == null) {
+        ITypeBinding binding = resolveTypeBinding(((ExpressionStatement) expressionStatement).getExpression());
+        if (binding == null) {
             return "Object";
         }
 
-        return statement.getExpression().resolveTypeBinding().getName();
+        return binding.getName();
+    }
+
+    /**
+     * Gets the type of a missing variable from a number literal.
+     * @param varName           name of the missing variable
+     * @param numberLiteral     expression closest to error
+     * @return the type of the missing variable
+     */
+    private String getTypeFromNumberLiteral(String varName, ASTNode numberLiteral) {
+        NumberLiteral literal = (NumberLiteral) numberLiteral;
+        ITypeBinding binding = resolveTypeBinding(literal);
+        if (binding != null) {
+            return binding.getName();
+        }
+
+        String token = literal.getToken().toLowerCase();
+        boolean isLong = token.endsWith("l");
+
+        // Hex and binary digits can end in d, e, or f, so only a long suffix applies to them
+        if (token.startsWith("0x") || token.startsWith("0b")) {
+            if (token.contains("p")) {
+                return token.endsWith("f") ? "float" : "double";
+            }
+
+            return isLong ? "long" : "int";
+        }
+
+        // Processing treats decimal literals as floats
+        if (isLong) {
+            return "long";
+        } else if (token.endsWith("d")) {
+            return "double";
+        } else if (token.contains(".") || token.contains("e") || token.endsWith("f")) {
+            return "float";
+        }
+
+        return "int";
+    }
+
+    /**
+     * Gets the type written in the declaration of a variable, for when its binding can't be used.
+     * @param fragment      the declaration of the variable
+     * @return the declared type or "Object" if the declaration doesn't have one
+     */
+    private String getDeclaredType(VariableDeclarationFragment fragment) {
+        ASTNode parent = fragment.getParent();
+        if (parent instanceof VariableDeclarationStatement) {
+            return ((VariableDeclarationStatement) parent).getType().toString();
+        } else if (parent instanceof FieldDeclaration) {
+            return ((FieldDeclaration) parent).getType().toString();
+        }
+
+        return "Object";
+    }
+
+    /**
+     * Resolves the type of an expression if bindings are being resolved.
+     * @param expression    the expression to resolve, which may be null
+     * @return the type's binding or null if it isn't resolved or can't be
+     */
+    private ITypeBinding resolveTypeBinding(Expression expression) {
+        return isResolvingBindings && expression != null ? expression.resolveTypeBinding() : null;
+    }
+
+    /**
+     * Resolves the method called by an invocation if bindings are being resolved.
+     * @param invocation    the invocation to resolve
+     * @return the method's binding or null if it isn't resolved or can't be
+     */
+    private IMethodBinding resolveMethodBinding(MethodInvocation invocation) {
+        return isResolvingBindings ? invocation.resolveMethodBinding() : null;
     }
 
     /**
@@ -962,19 +1042,4 @@ public class ErrorURLAssembler {
         );
     }
 
-    /**
-     * Gets the global parameters as URL query parameters.
-     * @param first     whether the global parameters are the first parameters 
-     *                  in the query
-     * @return the global parameters as a URL query string
-     */
-    private String getGlobalParams(boolean first) {
-        String connectedParams = GLOBAL_PARAMS.entrySet().stream().map(
-                (entry) -> entry.getKey() + "=" + entry.getValue()
-        ).collect(Collectors.joining("&"));
-
-        String firstChar = first ? "?" : "&";
-        return firstChar + connectedParams;
-    }
-
 }
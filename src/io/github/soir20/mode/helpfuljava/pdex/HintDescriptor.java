@@ -0,0 +1,195 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * An immutable description of an error page: the kind of page and the values
+ * of its parameters. Descriptors are cheap to create and compare, and they are
+ * only turned into URLs by {@link HintUrlEncoder#getUrl(HintDescriptor)}
+ * when a page is actually loaded. A descriptor can also carry the plain-language
+ * explanation of its error, which is shown when the page can't be loaded. The
+ * explanation doesn't change which page it describes, so it is ignored by
+ * {@link #equals(Object)}. Code snippets are kept in the descriptor's parameters,
+ * and a long hash of the page is computed once per descriptor for cache keys.
+ * @author soir20
+ */
+public final class HintDescriptor {
+    private static final HintDescriptor DEFAULT = new HintDescriptor(PageKind.DEFAULT);
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final PageKind KIND;
+    private final String[] PARAMS;
+    private final int HASH;
+    private final String EXPLANATION;
+
+    // Computed when first needed; zero means not computed yet
+    private volatile long pageHash;
+
+    /**
+     * Creates a new descriptor without an explanation.
+     * @param kind      the kind of page
+     * @param params    the parameter values in the order of the kind's parameter
+     *                  names; a null value leaves the parameter out
+     */
+    private HintDescriptor(PageKind kind, String... params) {
+        if (params.length != kind.getParamCount()) {
+            throw new IllegalArgumentException(kind + " takes " + kind.getParamCount()
+                    + " parameters but " + params.length + " were given.");
+        }
+
+        KIND = kind;
+
+        // Copy the values so a caller's array can't change the descriptor after it is hashed
+        PARAMS = params.clone();
+
+        // Use the ordinal instead of the enum's identity hash so the hash is the same across sessions
+        HASH = 31 * kind.ordinal() + Arrays.hashCode(PARAMS);
+
+        EXPLANATION = null;
+    }
+
+    /**
+     * Creates a copy of a descriptor with an explanation.
+     * @param original      the descriptor to copy
+     * @param explanation   the explanation of the error or null for none
+     */
+    private HintDescriptor(HintDescriptor original, String explanation) {
+        KIND = original.KIND;
+
+        // The original's values are already a private copy, so they can be shared
+        PARAMS = original.PARAMS;
+        HASH = original.HASH;
+        EXPLANATION = explanation;
+        pageHash = original.pageHash;
+    }
+
+    /**
+     * Creates a new descriptor.
+     * @param kind      the kind of page
+     * @param params    the parameter values in the order of the kind's parameter
+     *                  names; a null value leaves the parameter out
+     * @return the descriptor for the page
+     */
+    public static HintDescriptor of(PageKind kind, String... params) {
+        return new HintDescriptor(kind, params);
+    }
+
+    /**
+     * Gets the descriptor for the default page, shown when there is no hint.
+     * @return the descriptor for the default page
+     */
+    public static HintDescriptor getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Checks whether this is the default page.
+     * @return whether this is the default page
+     */
+    public boolean isDefault() {
+        return KIND == PageKind.DEFAULT;
+    }
+
+    /**
+     * Creates a descriptor for the same page with an explanation of its error.
+     * @param explanation   the explanation of the error or null for none
+     * @return the descriptor with the explanation
+     */
+    public HintDescriptor withExplanation(String explanation) {
+        return new HintDescriptor(this, explanation);
+    }
+
+    /**
+     * Gets the plain-language explanation of the error.
+     * @return the explanation or empty if there is none
+     */
+    public Optional<String> getExplanation() {
+        return Optional.ofNullable(EXPLANATION);
+    }
+
+    /**
+     * Gets the kind of page.
+     * @return the kind of page
+     */
+    public PageKind getKind() {
+        return KIND;
+    }
+
+    /**
+     * Gets the value of a parameter.
+     * @param index     the index of the parameter
+     * @return the value of the parameter or null if it is left out
+     */
+    public String getParam(int index) {
+        return PARAMS[index];
+    }
+
+    /**
+     * Gets a 64-bit hash of the page this describes, which is long enough to
+     * identify the page in a cache by itself. It is computed once per descriptor
+     * and is the same across sessions. Like {@link #equals(Object)}, it ignores
+     * the explanation.
+     * @return the hash of the page, which is never zero
+     */
+    public long getPageHash() {
+        long hash = pageHash;
+        if (hash != 0) {
+            return hash;
+        }
+
+        hash = mix(FNV_OFFSET_BASIS, KIND.ordinal());
+        for (String param : PARAMS) {
+
+            // Hash the length first so values split differently don't hash the same
+            if (param == null) {
+                hash = mix(hash, -1);
+                continue;
+            }
+
+            hash = mix(hash, param.length());
+            for (int index = 0; index < param.length(); index++) {
+                hash = mix(hash, param.charAt(index));
+            }
+        }
+
+        pageHash = hash == 0 ? 1 : hash;
+        return pageHash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (!(other instanceof HintDescriptor)) {
+            return false;
+        }
+
+        HintDescriptor otherHint = (HintDescriptor) other;
+        return HASH == otherHint.HASH && KIND == otherHint.KIND && Arrays.equals(PARAMS, otherHint.PARAMS);
+    }
+
+    @Override
+    public int hashCode() {
+        return HASH;
+    }
+
+    @Override
+    public String toString() {
+        return KIND + Arrays.toString(PARAMS);
+    }
+
+    /**
+     * Adds a value to an FNV-1a hash.
+     * @param hash      the hash so far
+     * @param value     the value to add
+     * @return the new hash
+     */
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+}
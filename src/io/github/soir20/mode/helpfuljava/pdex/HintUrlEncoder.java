@@ -0,0 +1,99 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+/**
+ * Encodes hints as the URLs of their pages on the hint server. Display settings
+ * like the font size aren't part of the URLs, so a page's URL only depends on
+ * its error. The server needs the code from the sketch in the URL, so pages are
+ * cached by a short key derived from the hint instead. This class doesn't use
+ * the JDT, so it is cheap to load when an editor opens. Safe to use from any thread.
+ * @author soir20
+ */
+public class HintUrlEncoder {
+    public static final String DEFAULT_BASE_URL = "http://139.147.9.247/";
+    private final String BASE_URL;
+    private final String GLOBAL_PARAMS;
+
+    /**
+     * Creates a new encoder for the default hint server.
+     * @param embedded      whether the pages will be embedded
+     */
+    public HintUrlEncoder(boolean embedded) {
+        this(DEFAULT_BASE_URL, embedded);
+    }
+
+    /**
+     * Creates a new encoder.
+     * @param baseUrl       the URL of the hint server that all page paths are relative to
+     * @param embedded      whether the pages will be embedded
+     */
+    public HintUrlEncoder(String baseUrl, boolean embedded) {
+        BASE_URL = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        GLOBAL_PARAMS = embedded ? "embed=true" : "";
+    }
+
+    /**
+     * Gets the base URL for all pages without parameters.
+     * @return  the base URL without parameters
+     */
+    public String getBaseUrl() {
+        return BASE_URL;
+    }
+
+    /**
+     * Encodes a hint as the URL of its page.
+     * @param hint      the hint to encode
+     * @return the URL with path and parameters for the hint's page
+     */
+    public String getUrl(HintDescriptor hint) {
+        PageKind kind = hint.getKind();
+        StringBuilder url = new StringBuilder(BASE_URL).append(kind.getPath());
+
+        boolean first = true;
+        for (int index = 0; index < kind.getParamCount(); index++) {
+            String value = hint.getParam(index);
+            if (value == null) {
+                continue;
+            }
+
+            url.append(first ? '?' : '&').append(kind.getParamName(index)).append('=').append(encode(value));
+            first = false;
+        }
+
+        if (!GLOBAL_PARAMS.isEmpty()) {
+            url.append(first ? '?' : '&').append(GLOBAL_PARAMS);
+        }
+
+        return url.toString();
+    }
+
+    /**
+     * Gets the key of a hint's page in the page cache, which is much shorter than
+     * its URL when the hint shows code. Uses the hint's memoized page hash, so it
+     * is cheap to call repeatedly for the same hint.
+     * @param hint      the hint to get the key for
+     * @return the key of the hint's page
+     */
+    public String getCacheKey(HintDescriptor hint) {
+        return hint.getKind().getPath() + '#' + Long.toHexString(hint.getPageHash());
+    }
+
+    /**
+     * Encodes a value for a URL query parameter.
+     * @param value     the value to encode
+     * @return the encoded value
+     */
+    private String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException err) {
+
+            // Every Java platform is required to support UTF-8
+            throw new IllegalStateException(err);
+
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
+import processing.app.Problem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads and compiles the hint pipeline before the first real error by finding
+ * hints for a {@link SnippetCorpus} of broken snippets. Each snippet is wrapped
+ * in a {@link SnippetSketch} and sent through the same path as a sketch from the
+ * preprocessing service: its problems are extracted and simplified, its quick
+ * hints are found, and then they are refined with bindings. The hints are encoded
+ * as URLs, so the first hint in a session is about as fast as later ones.
+ * The warm-up has its own listener, so it doesn't change any editor's hints. It
+ * can be interrupted and continued later from the next snippet. Should only be
+ * used on one thread at a time.
+ * @author soir20
+ */
+public class HintWarmUp {
+    private static final String WARM_UP_CLASS = "WarmUp";
+    private final File CORPUS;
+    private List<SnippetCorpus.Snippet> snippets;
+    private ErrorListener listener;
+    private HintUrlEncoder urlEncoder;
+    private int nextSnippet;
+
+    /**
+     * Creates a new warm-up. Nothing is loaded until it runs.
+     * @param corpus        the file with the snippet corpus
+     */
+    public HintWarmUp(File corpus) {
+        CORPUS = corpus;
+    }
+
+    /**
+     * Finds the hints for the snippets that haven't been analyzed yet. Stops after
+     * the current snippet if the thread is interrupted. A missing or unreadable
+     * corpus counts as an empty one, since the warm-up is only an optimization.
+     * @return whether every snippet has been analyzed
+     */
+    public boolean run() {
+        if (snippets == null) {
+            snippets = readCorpus(CORPUS);
+            listener = new ErrorListener(HintTelemetry.disabled());
+            urlEncoder = new HintUrlEncoder(false);
+        }
+
+        while (nextSnippet < snippets.size()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+
+            SnippetSketch sketch = SnippetSketch.of(snippets.get(nextSnippet).getMembers(), WARM_UP_CLASS);
+            List<Problem> problems = sketch.getProblems();
+
+            // Quick hints come first, like the first hint for a sketch from the editor
+            listener.updateSketch(sketch.getSketch(), listener.startGeneration()).ifPresent(urlEncoder::getUrl);
+            for (Problem problem : problems) {
+                listener.findHint(problem).ifPresent(urlEncoder::getUrl);
+            }
+
+            listener.precomputeHints(problems);
+            listener.getRefinedHints().forEach(urlEncoder::getUrl);
+
+            nextSnippet++;
+        }
+
+        // The warm-up is only run once, so its listener and snippets can be collected
+        listener = null;
+        urlEncoder = null;
+        return true;
+    }
+
+    /**
+     * Reads the snippets in the corpus.
+     * @param corpus    the corpus file
+     * @return the snippets or an empty list if the corpus can't be read
+     */
+    private static List<SnippetCorpus.Snippet> readCorpus(File corpus) {
+        try {
+            return SnippetCorpus.read(corpus).getSnippets();
+        } catch (IOException | RuntimeException err) {
+            return Collections.emptyList();
+        }
+    }
+
+}
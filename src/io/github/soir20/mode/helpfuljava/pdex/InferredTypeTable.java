@@ -0,0 +1,81 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the types inferred for variables in one compilation unit, keyed on
+ * the closest typed expression and the variable's name. Problems in the same
+ * expression, like each argument of a call to a missing method, and problems
+ * analyzed again, like a refinement that timed out, reuse the type instead of
+ * resolving bindings again. Types inferred with and without bindings are kept
+ * apart because they can differ. Nodes are compared by identity because they
+ * are only valid for the AST they came from. Only used on the hint thread.
+ * @author soir20
+ */
+public class InferredTypeTable {
+    private final ASTNode ROOT;
+    private final Map<ASTNode, Map<String, String>> BOUND_TYPES;
+    private final Map<ASTNode, Map<String, String>> SYNTACTIC_TYPES;
+    private int hits;
+
+    /**
+     * Creates an empty table.
+     * @param root      the root of the AST the table is for
+     */
+    public InferredTypeTable(ASTNode root) {
+        ROOT = root;
+        BOUND_TYPES = new IdentityHashMap<>();
+        SYNTACTIC_TYPES = new IdentityHashMap<>();
+    }
+
+    /**
+     * Checks whether this table is for an AST.
+     * @param root      the root of the AST
+     * @return whether this table is for the AST
+     */
+    public boolean isFor(ASTNode root) {
+        return ROOT == root;
+    }
+
+    /**
+     * Gets the type inferred for a variable from an expression.
+     * @param expression        the closest typed expression to the variable
+     * @param varName           the name of the variable
+     * @param resolvedBindings  whether the type was inferred with bindings
+     * @return the name of the type or null if it hasn't been inferred yet
+     */
+    public String get(ASTNode expression, String varName, boolean resolvedBindings) {
+        Map<String, String> types = (resolvedBindings ? BOUND_TYPES : SYNTACTIC_TYPES).get(expression);
+        String type = types == null ? null : types.get(varName);
+        if (type != null) {
+            hits++;
+        }
+
+        return type;
+    }
+
+    /**
+     * Remembers the type inferred for a variable from an expression.
+     * @param expression        the closest typed expression to the variable
+     * @param varName           the name of the variable
+     * @param resolvedBindings  whether the type was inferred with bindings
+     * @param type              the name of the type
+     */
+    public void put(ASTNode expression, String varName, boolean resolvedBindings, String type) {
+        (resolvedBindings ? BOUND_TYPES : SYNTACTIC_TYPES).computeIfAbsent(expression, (key) -> new HashMap<>())
+                .put(varName, type);
+    }
+
+    /**
+     * Gets how many types were found in the table instead of being inferred again.
+     * @return the number of lookups that found a type
+     */
+    public int getHits() {
+        return hits;
+    }
+
+}
@@ -0,0 +1,215 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps compiler messages to handlers with a prefix trie built from message
+ * patterns. Classifying a message walks the trie once, so the time taken depends
+ * on the length of the message rather than the number of patterns.
+ *
+ * Patterns are literal text where each {@value #WILDCARD} captures any text,
+ * like "expecting {}, found '{}'". A pattern ending in a wildcard matches every
+ * message that starts with the text before it. When several patterns match, the
+ * one with the longest literal text before its first wildcard wins, and among
+ * those, the one added first.
+ * @param <T> type of handler the messages are mapped to
+ * @author soir20
+ */
+public class MessageClassifier<T> {
+    public static final String WILDCARD = "{}";
+
+    private final Node<T> ROOT;
+
+    /**
+     * Creates a classifier with no patterns.
+     */
+    public MessageClassifier() {
+        ROOT = new Node<>();
+    }
+
+    /**
+     * Adds a pattern to the classifier.
+     * @param pattern       the message pattern
+     * @param handler       the handler for messages that match the pattern
+     * @return this classifier, for chaining
+     */
+    public MessageClassifier<T> add(String pattern, T handler) {
+        int wildcardIndex = pattern.indexOf(WILDCARD);
+        String prefix = wildcardIndex >= 0 ? pattern.substring(0, wildcardIndex) : pattern;
+
+        Node<T> node = ROOT;
+        for (int index = 0; index < prefix.length(); index++) {
+            node = node.CHILDREN.computeIfAbsent(prefix.charAt(index), (key) -> new Node<>());
+        }
+
+        node.PATTERNS.add(new Pattern<>(pattern, handler));
+        return this;
+    }
+
+    /**
+     * Finds the handler for a message.
+     * @param message       the message to classify
+     * @return the matching handler and the text captured by each wildcard,
+     *         or empty if no pattern matches
+     */
+    public Optional<Match<T>> classify(String message) {
+        if (message == null) {
+            return Optional.empty();
+        }
+
+        // Record every node along the message's path that ends a pattern prefix
+        List<Node<T>> candidates = new ArrayList<>();
+        Node<T> node = ROOT;
+        int index = 0;
+        while (node != null) {
+            if (!node.PATTERNS.isEmpty()) {
+                candidates.add(node);
+            }
+
+            node = index < message.length() ? node.CHILDREN.get(message.charAt(index)) : null;
+            index++;
+        }
+
+        // Prefer the longest literal prefix
+        for (int candidate = candidates.size() - 1; candidate >= 0; candidate--) {
+            for (Pattern<T> pattern : candidates.get(candidate).PATTERNS) {
+                Optional<List<String>> captures = pattern.match(message);
+                if (captures.isPresent()) {
+                    return Optional.of(new Match<>(pattern.HANDLER, captures.get()));
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * A handler that matched a message and the text its pattern captured.
+     * @param <T> type of handler
+     * @author soir20
+     */
+    public static class Match<T> {
+        private final T HANDLER;
+        private final List<String> CAPTURES;
+
+        /**
+         * Creates a new match.
+         * @param handler       the handler for the matching pattern
+         * @param captures      the text captured by each wildcard, in order
+         */
+        private Match(T handler, List<String> captures) {
+            HANDLER = handler;
+            CAPTURES = Collections.unmodifiableList(captures);
+        }
+
+        /**
+         * Gets the handler for the matching pattern.
+         * @return the handler for the matching pattern
+         */
+        public T getHandler() {
+            return HANDLER;
+        }
+
+        /**
+         * Gets the text captured by a wildcard.
+         * @param index     the index of the wildcard in the pattern
+         * @return the captured text
+         */
+        public String getCapture(int index) {
+            return CAPTURES.get(index);
+        }
+
+        /**
+         * Gets the text captured by each wildcard in the pattern.
+         * @return the captured text, in order
+         */
+        public List<String> getCaptures() {
+            return CAPTURES;
+        }
+
+    }
+
+    /**
+     * A node in the prefix trie.
+     * @param <T> type of handler
+     */
+    private static class Node<T> {
+        private final Map<Character, Node<T>> CHILDREN = new HashMap<>();
+        private final List<Pattern<T>> PATTERNS = new ArrayList<>();
+    }
+
+    /**
+     * A pattern split into the literal segments between its wildcards.
+     * @param <T> type of handler
+     */
+    private static class Pattern<T> {
+        private final String[] SEGMENTS;
+        private final T HANDLER;
+
+        /**
+         * Creates a new pattern.
+         * @param pattern       the full pattern text
+         * @param handler       the handler for messages that match
+         */
+        private Pattern(String pattern, T handler) {
+            List<String> segments = new ArrayList<>();
+            int start = 0;
+            int wildcardIndex;
+            while ((wildcardIndex = pattern.indexOf(WILDCARD, start)) >= 0) {
+                segments.add(pattern.substring(start, wildcardIndex));
+                start = wildcardIndex + WILDCARD.length();
+            }
+            segments.add(pattern.substring(start));
+
+            SEGMENTS = segments.toArray(new String[0]);
+            HANDLER = handler;
+        }
+
+        /**
+         * Matches a message that is already known to start with the first segment.
+         * Each wildcard captures text up to the next occurrence of the following
+         * segment, and the last segment must end the message.
+         * @param message       the message to match
+         * @return the captured text or empty if the message doesn't match
+         */
+        private Optional<List<String>> match(String message) {
+            List<String> captures = new ArrayList<>(SEGMENTS.length - 1);
+            int position = SEGMENTS[0].length();
+
+            for (int index = 1; index < SEGMENTS.length; index++) {
+                String segment = SEGMENTS[index];
+                boolean isLast = index == SEGMENTS.length - 1;
+
+                int segmentStart;
+                if (isLast) {
+                    segmentStart = message.length() - segment.length();
+                    if (segmentStart < position || !message.endsWith(segment)) {
+                        return Optional.empty();
+                    }
+                } else {
+                    segmentStart = message.indexOf(segment, position);
+                    if (segmentStart < 0) {
+                        return Optional.empty();
+                    }
+                }
+
+                captures.add(message.substring(position, segmentStart));
+                position = segmentStart + segment.length();
+            }
+
+            // Patterns without wildcards must match the whole message
+            if (SEGMENTS.length == 1 && position != message.length()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(captures);
+        }
+
+    }
+
+}
@@ -0,0 +1,100 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The kinds of error pages on the hint server, with their paths and the names
+ * of their query parameters.
+ * @author soir20
+ */
+public enum PageKind {
+    DEFAULT(""),
+    EXTRANEOUS_CLOSING_CURLY_BRACE("extraneousclosingcurlybrace", "original", "fixed"),
+    INCORRECT_VARIABLE_DECLARATION("incorrectvariabledeclaration", "typename", "foundname"),
+    INCORRECT_METHOD_DECLARATION("incorrectmethoddeclaration", "methodname"),
+    MISSING_ARRAY_DIMENSION("incorrectdimensionexpression1", "typename", "arrname"),
+    MISSING_FIRST_ARRAY_DIMENSION("incorrectdimensionexpression2", "typename", "arrname"),
+    TWO_ARRAY_INITIALIZERS("incorrectdimensionexpression3", "typename", "arrname"),
+    METHOD_NOT_FOUND("methodnotfound", "methodname", "correctmethodname", "typename",
+            "providedparams", "providedtypes"),
+    PARAMETER_MISMATCH("parametermismatch", "classname", "methodname", "methodtypename",
+            "providedtypes", "requiredtypes"),
+    RETURN_MISSING("returnmissing", "methodname", "typename", "requiredtypes"),
+    TYPE_MISMATCH("typemismatch", "typeonename", "typetwoname", "varname"),
+    TYPE_NOT_FOUND("typenotfound", "classname", "correctclassname", "varname"),
+    VARIABLE_NOT_FOUND("variablenotfound", "classname", "varname"),
+    VARIABLE_NOT_INITIALIZED("variablenotinit", "varname", "typename"),
+    UNEXPECTED_TOKEN("unexpectedtoken", "typename"),
+    NON_STATIC_FROM_STATIC("nonstaticfromstatic", "methodname", "staticmethodname",
+            "staticmethodreturntype", "methodreturntype", "filename"),
+    VARIABLE_DECLARATORS("syntaxerrorvariabledeclarators", "methodonename", "typename"),
+    METHOD_CALL_ON_WRONG_TYPE("methodcallonwrongtype", "methodname", "returntype", "typename", "varname"),
+    ARRAY_INDEX_OUT_OF_BOUNDS("arrayindexoutofbounds", "tabname", "linenumber", "message"),
+    NULL_POINTER("nullpointer", "tabname", "linenumber", "message"),
+    CLASS_CAST("classcast", "tabname", "linenumber", "message"),
+    RUNTIME_EXCEPTION("runtimeexception", "exceptionname", "tabname", "linenumber", "message");
+
+    private static final Set<String> SNIPPET_PARAM_NAMES = new HashSet<>(Arrays.asList(
+            "original", "fixed", "providedparams", "providedtypes", "requiredtypes"
+    ));
+    private static final Set<PageKind> RUNTIME_KINDS = EnumSet.of(
+            ARRAY_INDEX_OUT_OF_BOUNDS, NULL_POINTER, CLASS_CAST, RUNTIME_EXCEPTION
+    );
+
+    private final String PATH;
+    private final String[] PARAM_NAMES;
+
+    PageKind(String path, String... paramNames) {
+        PATH = path;
+        PARAM_NAMES = paramNames;
+    }
+
+    /**
+     * Gets the path of this page relative to the server's base URL.
+     * @return the path of this page
+     */
+    public String getPath() {
+        return PATH;
+    }
+
+    /**
+     * Gets the number of query parameters this page takes.
+     * @return the number of query parameters this page takes
+     */
+    public int getParamCount() {
+        return PARAM_NAMES.length;
+    }
+
+    /**
+     * Gets the name of a query parameter.
+     * @param index     the index of the parameter
+     * @return the name of the query parameter
+     */
+    public String getParamName(int index) {
+        return PARAM_NAMES[index];
+    }
+
+    /**
+     * Checks whether a query parameter holds code from the sketch, which can be
+     * too long to put in a URL directly.
+     * @param index     the index of the parameter
+     * @return whether the parameter holds code
+     */
+    public boolean isSnippet(int index) {
+        return SNIPPET_PARAM_NAMES.contains(PARAM_NAMES[index]);
+    }
+
+    /**
+     * Checks whether this page is for an exception thrown while the sketch runs.
+     * The hint server may not have these pages yet, so their hints' explanations
+     * are shown when the server answers with an error.
+     * @return whether this page is for a runtime exception
+     */
+    public boolean isRuntimeException() {
+        return RUNTIME_KINDS.contains(this);
+    }
+
+}
@@ -0,0 +1,322 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import org.eclipse.jdt.core.compiler.IProblem;
+import processing.app.Problem;
+import processing.mode.java.JavaMode;
+import processing.mode.java.pdex.ErrorMessageSimplifier;
+import processing.mode.java.pdex.PreprocessedSketch;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A compact copy of the compiler problems in a sketch and their hints, so the
+ * sketch and its AST don't have to be kept to look up hints later. Each row is
+ * one compiler problem, stored in parallel arrays. A row first gets a quick
+ * hint from the syntax alone, which is later replaced by a refined hint that
+ * uses bindings. Rows are only written on the hint thread, but hints can be
+ * read from any thread.
+ * @author soir20
+ */
+public class ProblemTable {
+    private static final ProblemTable EMPTY = new ProblemTable(0);
+
+    // Marks rows that were analyzed but have no hint
+    private static final HintDescriptor NO_HINT = HintDescriptor.getDefault();
+
+    private final int[] RAW_INDICES;
+    private final int[] PROBLEM_IDS;
+    private final String[][] PROBLEM_ARGUMENTS;
+    private final int[] TAB_INDICES;
+    private final int[] START_TAB_OFFSETS;
+    private final int[] STOP_TAB_OFFSETS;
+    private final int[] START_PDE_OFFSETS;
+    private final int[] STOP_PDE_OFFSETS;
+    private final int[] MESSAGE_HASHES;
+    private final String[] MESSAGES;
+    private final AtomicReferenceArray<HintDescriptor> HINTS;
+    private final AtomicIntegerArray REFINED;
+    private final int[] REFINEMENT_TIMEOUTS;
+    private final AtomicInteger UNREFINED_ROWS;
+    private int size;
+
+    /**
+     * Creates an empty table with room for rows.
+     * @param capacity      the maximum number of rows
+     */
+    private ProblemTable(int capacity) {
+        RAW_INDICES = new int[capacity];
+        PROBLEM_IDS = new int[capacity];
+        PROBLEM_ARGUMENTS = new String[capacity][];
+        TAB_INDICES = new int[capacity];
+        START_TAB_OFFSETS = new int[capacity];
+        STOP_TAB_OFFSETS = new int[capacity];
+        START_PDE_OFFSETS = new int[capacity];
+        STOP_PDE_OFFSETS = new int[capacity];
+        MESSAGE_HASHES = new int[capacity];
+        MESSAGES = new String[capacity];
+        HINTS = new AtomicReferenceArray<>(capacity);
+        REFINED = new AtomicIntegerArray(capacity);
+        REFINEMENT_TIMEOUTS = new int[capacity];
+        UNREFINED_ROWS = new AtomicInteger();
+    }
+
+    /**
+     * Gets a table with no problems.
+     * @return a table with no problems
+     */
+    public static ProblemTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Copies the compiler problems that are inside the sketch's code into a new table.
+     * Problems the error checker hides are skipped, so every row can have a
+     * problem in the editor.
+     * @param sketch    the sketch to copy problems from
+     * @param budget    the budget for copying the problems
+     * @return a table with every problem in the sketch and no hints yet
+     * @throws AnalysisCancelledException if the budget runs out
+     */
+    public static ProblemTable extract(PreprocessedSketch sketch, AnalysisBudget budget) {
+        IProblem[] rawProblems = sketch.compilationUnit.getProblems();
+        ProblemTable table = new ProblemTable(rawProblems.length);
+
+        for (int rawIndex = 0; rawIndex < rawProblems.length; rawIndex++) {
+            budget.check();
+
+            IProblem rawProblem = rawProblems[rawIndex];
+            if (isHiddenByErrorChecker(rawProblem)) {
+                continue;
+            }
+
+            PreprocessedSketch.SketchInterval interval = sketch.mapJavaToSketch(rawProblem);
+            if (interval == PreprocessedSketch.SketchInterval.BEFORE_START) {
+                continue;
+            }
+
+            String message = ErrorMessageSimplifier.getSimplifiedErrorMessage(
+                    rawProblem, sketch.getPdeCode(interval)
+            );
+
+            int row = table.size++;
+            table.RAW_INDICES[row] = rawIndex;
+            table.PROBLEM_IDS[row] = rawProblem.getID();
+            table.PROBLEM_ARGUMENTS[row] = rawProblem.getArguments();
+            table.TAB_INDICES[row] = interval.tabIndex;
+            table.START_TAB_OFFSETS[row] = interval.startTabOffset;
+            table.STOP_TAB_OFFSETS[row] = interval.stopTabOffset;
+            table.START_PDE_OFFSETS[row] = interval.startPdeOffset;
+            table.STOP_PDE_OFFSETS[row] = interval.stopPdeOffset;
+            table.MESSAGE_HASHES[row] = message == null ? 0 : message.hashCode();
+            table.MESSAGES[row] = message;
+        }
+
+        table.UNREFINED_ROWS.set(table.size);
+        return table;
+    }
+
+    /**
+     * Checks whether the error checker leaves a problem out of the editor, in the
+     * same way as {@link processing.mode.java.pdex.ErrorChecker}.
+     * @param rawProblem    the problem to check
+     * @return whether the problem is never shown in the editor
+     */
+    private static boolean isHiddenByErrorChecker(IProblem rawProblem) {
+        if (rawProblem.isWarning() && !JavaMode.warningsEnabled) {
+            return true;
+        }
+
+        // The error checker hides this error in favor of the missing semicolon error at the same place
+        String message = rawProblem.getMessage();
+        return message != null && message.contains("Syntax error, insert \":: IdentifierOrNew\"");
+    }
+
+    /**
+     * Gets the number of rows in the table.
+     * @return the number of rows in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the row for a problem already processed by the error checker. The
+     * rows are likely the same problem if they have the same location and message.
+     * @param problem   the problem processed by the error checker
+     * @return the index of the row or -1 if no row matches
+     */
+    public int findRow(Problem problem) {
+        int messageHash = problem.getMessage() == null ? 0 : problem.getMessage().hashCode();
+        int startOffset = problem.getStartOffset();
+        int stopOffset = problem.getStopOffset();
+
+        for (int row = 0; row < size; row++) {
+
+            // The error checker's offsets may be relative to the tab or to the whole sketch
+            boolean isSameTabLocation = TAB_INDICES[row] == problem.getTabIndex()
+                    && START_TAB_OFFSETS[row] == startOffset && STOP_TAB_OFFSETS[row] == stopOffset;
+            boolean isSamePdeLocation = START_PDE_OFFSETS[row] == startOffset && STOP_PDE_OFFSETS[row] == stopOffset;
+
+            if ((isSameTabLocation || isSamePdeLocation) && MESSAGE_HASHES[row] == messageHash) {
+                return row;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the compiler's ID for the problem in a row.
+     * @param row       the index of the row
+     * @return the compiler's ID for the problem
+     */
+    public int getProblemId(int row) {
+        return PROBLEM_IDS[row];
+    }
+
+    /**
+     * Gets the compiler's arguments for the problem in a row, such as the names
+     * and types it resolved.
+     * @param row       the index of the row
+     * @return the compiler's arguments for the problem
+     */
+    public String[] getProblemArguments(int row) {
+        return PROBLEM_ARGUMENTS[row];
+    }
+
+    /**
+     * Gets the index of the tab that contains the problem in a row.
+     * @param row       the index of the row
+     * @return the index of the tab that contains the problem
+     */
+    public int getTabIndex(int row) {
+        return TAB_INDICES[row];
+    }
+
+    /**
+     * Gets the offset where the problem in a row starts in its tab.
+     * @param row       the index of the row
+     * @return the offset where the problem starts in its tab
+     */
+    public int getStartTabOffset(int row) {
+        return START_TAB_OFFSETS[row];
+    }
+
+    /**
+     * Gets the offset where the problem in a row stops in its tab.
+     * @param row       the index of the row
+     * @return the offset where the problem stops in its tab
+     */
+    public int getStopTabOffset(int row) {
+        return STOP_TAB_OFFSETS[row];
+    }
+
+    /**
+     * Gets the simplified message for the problem in a row, which is the same
+     * message the error checker shows.
+     * @param row       the index of the row
+     * @return the simplified message or null if the problem has none
+     */
+    public String getMessage(int row) {
+        return MESSAGES[row];
+    }
+
+    /**
+     * Gets the compiler problem for a row from the sketch the table was extracted from.
+     * @param sketch    the sketch the table was extracted from
+     * @param row       the index of the row
+     * @return the compiler problem for the row
+     */
+    public IProblem getRawProblem(PreprocessedSketch sketch, int row) {
+        return sketch.compilationUnit.getProblems()[RAW_INDICES[row]];
+    }
+
+    /**
+     * Gets the hint for a row. Can be called on any thread.
+     * @param row       the index of the row
+     * @return the hint, an empty if the problem has no hint, or null if the row
+     *         hasn't been analyzed yet
+     */
+    public Optional<HintDescriptor> getHint(int row) {
+        HintDescriptor hint = HINTS.get(row);
+        if (hint == null) {
+            return null;
+        }
+
+        return hint == NO_HINT ? Optional.empty() : Optional.of(hint);
+    }
+
+    /**
+     * Sets the quick hint for a row that hasn't been analyzed yet. Should be called on the hint thread.
+     * @param row       the index of the row
+     * @param hint      the hint for the problem or empty if it has none
+     */
+    public void setHint(int row, Optional<HintDescriptor> hint) {
+        HINTS.set(row, hint.orElse(NO_HINT));
+    }
+
+    /**
+     * Replaces the hint for a row with its refined hint. Should be called on the hint thread.
+     * @param row       the index of the row
+     * @param hint      the refined hint for the problem or empty if it has none
+     */
+    public void setRefinedHint(int row, Optional<HintDescriptor> hint) {
+        HINTS.set(row, hint.orElse(NO_HINT));
+
+        // The flag is set after the hint, so a reader that sees the flag also sees the refined hint
+        if (REFINED.getAndSet(row, 1) == 0) {
+            UNREFINED_ROWS.decrementAndGet();
+        }
+    }
+
+    /**
+     * Counts a refinement of a row that ran out of time. Should be called on the hint thread.
+     * @param row       the index of the row
+     * @return how many times the row's refinement has run out of time
+     */
+    public int countRefinementTimeout(int row) {
+        return ++REFINEMENT_TIMEOUTS[row];
+    }
+
+    /**
+     * Stops refining a row, keeping its quick hint as its final hint. A row that
+     * was never analyzed gets no hint. Should be called on the hint thread.
+     * @param row       the index of the row
+     */
+    public void settle(int row) {
+        Optional<HintDescriptor> hint = getHint(row);
+        setRefinedHint(row, hint == null ? Optional.empty() : hint);
+    }
+
+    /**
+     * Checks whether a row has its refined hint. Can be called on any thread.
+     * @param row       the index of the row
+     * @return whether the row's hint is refined
+     */
+    public boolean isRefined(int row) {
+        return REFINED.get(row) == 1;
+    }
+
+    /**
+     * Gets the refined hint for a row. Can be called on any thread.
+     * @param row       the index of the row
+     * @return the refined hint, an empty if the problem has no hint, or null if
+     *         the row hasn't been refined yet
+     */
+    public Optional<HintDescriptor> getRefinedHint(int row) {
+        return isRefined(row) ? getHint(row) : null;
+    }
+
+    /**
+     * Checks whether every row has its refined hint or has been settled, which
+     * means the sketch is no longer needed.
+     * @return whether every row has been refined
+     */
+    public boolean isComplete() {
+        return UNREFINED_ROWS.get() == 0;
+    }
+
+}
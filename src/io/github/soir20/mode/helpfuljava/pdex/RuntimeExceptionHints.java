@@ -0,0 +1,97 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds error pages for exceptions thrown while a sketch runs. The runner reports
+ * these exceptions by name, like "NullPointerException: message", already placed
+ * in a tab and line. Each hint carries a plain-language explanation, which is
+ * shown when the hint server doesn't have the exception's page.
+ * @author soir20
+ */
+public class RuntimeExceptionHints {
+    private static final Pattern RUNTIME_EXCEPTION = Pattern.compile(
+            "(?:[\\w$]+\\.)*([\\w$]+(?:Exception|Error))(?::\\s*(.*))?", Pattern.DOTALL
+    );
+
+    /**
+     * Gets the hint for an exception thrown while the sketch ran.
+     * @param message       the message the runner reported
+     * @param tabName       the name of the tab where the exception was thrown or
+     *                      null if it wasn't thrown in the sketch's code
+     * @param tabLine       the line in the tab, starting at 1
+     * @return the hint for the exception or empty if the message isn't a runtime exception
+     */
+    public Optional<HintDescriptor> getHint(String message, String tabName, int tabLine) {
+        Matcher matcher = RUNTIME_EXCEPTION.matcher(message);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+
+        String exceptionName = matcher.group(1);
+        String detail = matcher.group(2) == null ? "" : matcher.group(2).trim();
+        PageKind kind = findKind(exceptionName);
+
+        String lineNumber = tabName == null ? null : String.valueOf(tabLine);
+        String detailParam = detail.isEmpty() ? null : detail;
+        HintDescriptor hint = kind == PageKind.RUNTIME_EXCEPTION
+                ? HintDescriptor.of(kind, exceptionName, tabName, lineNumber, detailParam)
+                : HintDescriptor.of(kind, tabName, lineNumber, detailParam);
+
+        return Optional.of(hint.withExplanation(explain(kind, exceptionName, tabName, tabLine, detail)));
+    }
+
+    /**
+     * Finds the kind of page for an exception.
+     * @param exceptionName     the simple name of the exception's class
+     * @return the exception's own kind of page or the page for any runtime exception
+     */
+    private static PageKind findKind(String exceptionName) {
+        switch (exceptionName) {
+            case "ArrayIndexOutOfBoundsException":
+                return PageKind.ARRAY_INDEX_OUT_OF_BOUNDS;
+            case "NullPointerException":
+                return PageKind.NULL_POINTER;
+            case "ClassCastException":
+                return PageKind.CLASS_CAST;
+            default:
+                return PageKind.RUNTIME_EXCEPTION;
+        }
+    }
+
+    /**
+     * Explains an exception in plain language, for when its page can't be shown.
+     * @param kind              the kind of page for the exception
+     * @param exceptionName     the simple name of the exception's class
+     * @param tabName           the name of the tab where the exception was thrown or null
+     * @param tabLine           the line in the tab, starting at 1
+     * @param detail            the exception's own message, which may be empty
+     * @return the explanation of the exception
+     */
+    private static String explain(PageKind kind, String exceptionName, String tabName, int tabLine, String detail) {
+        String location = tabName == null ? "a line outside the sketch"
+                : "line " + tabLine + " of the \"" + tabName + "\" tab";
+        String explanation;
+
+        switch (kind) {
+            case ARRAY_INDEX_OUT_OF_BOUNDS:
+                explanation = "An array was used with an index that it doesn't have on " + location
+                        + ". Indices start at 0 and must be less than the array's length.";
+                break;
+            case NULL_POINTER:
+                explanation = "Something on " + location + " was used before it was given a value, "
+                        + "so it was still null.";
+                break;
+            case CLASS_CAST:
+                explanation = "A value on " + location + " was converted to a type that it isn't.";
+                break;
+            default:
+                explanation = "The sketch stopped because " + exceptionName + " was thrown on " + location + ".";
+        }
+
+        return detail.isEmpty() ? explanation : explanation + " (" + detail + ")";
+    }
+
+}
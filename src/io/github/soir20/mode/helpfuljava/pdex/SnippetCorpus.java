@@ -0,0 +1,200 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A corpus of broken sketch snippets, each with the compiler problem it causes.
+ * The warm-up and the hint tools share the corpus, so they all analyze the same
+ * problems. Each line of the corpus is a snippet's name, the name of its problem's
+ * {@link IProblem} constant, and the snippet's class members, separated by "|".
+ * Blank lines and lines starting with # are ignored.
+ * @author soir20
+ */
+public class SnippetCorpus {
+    private static final String COMMENT_START = "#";
+    private static final String SEPARATOR = "\\s*\\|\\s*";
+    private static final String SNIPPET_CLASS = "Snippet";
+
+    private final List<Snippet> SNIPPETS;
+
+    /**
+     * Creates a new corpus.
+     * @param snippets      the snippets in the corpus
+     */
+    private SnippetCorpus(List<Snippet> snippets) {
+        SNIPPETS = Collections.unmodifiableList(snippets);
+    }
+
+    /**
+     * Reads a corpus file.
+     * @param corpus    the corpus file
+     * @return the corpus
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if a line isn't a snippet or names a problem that doesn't exist
+     */
+    public static SnippetCorpus read(File corpus) throws IOException {
+        List<Snippet> snippets = new ArrayList<>();
+
+        for (String line : Files.readAllLines(corpus.toPath(), StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith(COMMENT_START)) {
+                continue;
+            }
+
+            String[] parts = line.split(SEPARATOR, 3);
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Corpus line isn't \"name | problem | members\": " + line);
+            }
+
+            snippets.add(new Snippet(parts[0], findProblemId(parts[1]), parts[2]));
+        }
+
+        return new SnippetCorpus(snippets);
+    }
+
+    /**
+     * Gets every snippet in the corpus.
+     * @return the snippets in the order they appear in the corpus
+     */
+    public List<Snippet> getSnippets() {
+        return SNIPPETS;
+    }
+
+    /**
+     * Finds the snippet with a name.
+     * @param name      the name of the snippet
+     * @return the snippet with the name
+     * @throws IllegalArgumentException if no snippet has the name
+     */
+    public Snippet getSnippet(String name) {
+        for (Snippet snippet : SNIPPETS) {
+            if (snippet.getName().equals(name)) {
+                return snippet;
+            }
+        }
+
+        throw new IllegalArgumentException("No snippet is named " + name);
+    }
+
+    /**
+     * Parses Java code with bindings, like the error checker parses a sketch.
+     * @param javaCode      the Java code to parse
+     * @param className     the name of the class in the code
+     * @return the root of the code's AST
+     */
+    public static CompilationUnit parse(String javaCode, String className) {
+        ASTParser parser = ASTParser.newParser(AST.JLS8);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(javaCode.toCharArray());
+        parser.setUnitName(className + ".java");
+        parser.setEnvironment(null, null, null, true);
+        parser.setResolveBindings(true);
+        parser.setBindingsRecovery(true);
+        parser.setStatementsRecovery(true);
+
+        Map<String, String> options = JavaCore.getOptions();
+        JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
+        parser.setCompilerOptions(options);
+
+        return (CompilationUnit) parser.createAST(null);
+    }
+
+    /**
+     * Finds the ID of a compiler problem from the name of its constant.
+     * @param problemName   the name of the {@link IProblem} constant
+     * @return the ID of the problem
+     * @throws IllegalArgumentException if there is no constant with the name
+     */
+    private static int findProblemId(String problemName) {
+        try {
+            return IProblem.class.getField(problemName).getInt(null);
+        } catch (NoSuchFieldException | IllegalAccessException err) {
+            throw new IllegalArgumentException("No compiler problem is named " + problemName, err);
+        }
+    }
+
+    /**
+     * One broken snippet in the corpus.
+     * @author soir20
+     */
+    public static class Snippet {
+        private final String NAME;
+        private final int PROBLEM_ID;
+        private final String MEMBERS;
+
+        /**
+         * Creates a new snippet.
+         * @param name          the name of the snippet
+         * @param problemId     the ID of the compiler problem the snippet causes
+         * @param members       the class members in the snippet
+         */
+        public Snippet(String name, int problemId, String members) {
+            NAME = name;
+            PROBLEM_ID = problemId;
+            MEMBERS = members;
+        }
+
+        /**
+         * Gets the name of the snippet.
+         * @return the name of the snippet
+         */
+        public String getName() {
+            return NAME;
+        }
+
+        /**
+         * Gets the ID of the compiler problem the snippet causes.
+         * @return the ID of the snippet's problem
+         */
+        public int getProblemId() {
+            return PROBLEM_ID;
+        }
+
+        /**
+         * Gets the class members in the snippet, which are top-level code in a sketch.
+         * @return the class members in the snippet
+         */
+        public String getMembers() {
+            return MEMBERS;
+        }
+
+        /**
+         * Parses the snippet as the body of a class with bindings.
+         * @return the root of the snippet's AST
+         */
+        public CompilationUnit parse() {
+            return SnippetCorpus.parse("public class " + SNIPPET_CLASS + " {\n" + MEMBERS + "\n}\n", SNIPPET_CLASS);
+        }
+
+        /**
+         * Finds the problem the snippet is meant to cause in its AST.
+         * @param ast       the snippet's AST
+         * @return the snippet's problem or empty if the AST doesn't have it
+         */
+        public Optional<IProblem> findProblem(CompilationUnit ast) {
+            for (IProblem problem : ast.getProblems()) {
+                if (problem.getID() == PROBLEM_ID) {
+                    return Optional.of(problem);
+                }
+            }
+
+            return Optional.empty();
+        }
+
+    }
+
+}
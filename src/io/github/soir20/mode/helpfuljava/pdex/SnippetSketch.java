@@ -0,0 +1,183 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import org.eclipse.jdt.core.compiler.IProblem;
+import processing.app.Problem;
+import processing.mode.java.pdex.ErrorMessageSimplifier;
+import processing.mode.java.pdex.PreprocessedSketch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A preprocessed sketch built from code outside of an editor, so the warm-up and
+ * the hint tools can drive {@link ErrorListener} through the same path as a real
+ * sketch. The tabs are joined the same way the preprocessing service does and
+ * wrapped in the sketch's class, which opens on the first line of the first tab,
+ * so the Java code and the sketch code share offsets and the tabs' line numbers
+ * don't change.
+ * @author soir20
+ */
+public class SnippetSketch {
+    private final PreprocessedSketch SKETCH;
+    private List<Problem> problems;
+
+    /**
+     * Creates a new sketch.
+     * @param sketch    the preprocessed sketch
+     */
+    private SnippetSketch(PreprocessedSketch sketch) {
+        SKETCH = sketch;
+    }
+
+    /**
+     * Builds and parses a sketch with one tab.
+     * @param members       the class members in the tab, which are top-level code in a sketch
+     * @param className     the name of the sketch's class
+     * @return the sketch, parsed with bindings
+     */
+    public static SnippetSketch of(String members, String className) {
+        return of(Collections.singletonList(members), className);
+    }
+
+    /**
+     * Builds and parses a sketch.
+     * @param tabTexts      the text of each tab
+     * @param className     the name of the sketch's class
+     * @return the sketch, parsed with bindings
+     */
+    public static SnippetSketch of(List<String> tabTexts, String className) {
+        PreprocessedSketch.Builder builder = new PreprocessedSketch.Builder();
+        builder.tabStartOffsets = new int[tabTexts.size()];
+
+        StringBuilder code = new StringBuilder("public class ").append(className).append(" { ");
+        for (int tab = 0; tab < tabTexts.size(); tab++) {
+
+            // The first tab starts with the class header, like the start of the Java code
+            builder.tabStartOffsets[tab] = tab == 0 ? 0 : code.length();
+            code.append(tabTexts.get(tab)).append('\n');
+        }
+        code.append("}\n");
+
+        builder.pdeCode = code.toString();
+        builder.javaCode = builder.pdeCode;
+        builder.compilationUnit = SnippetCorpus.parse(builder.javaCode, className);
+        builder.hasCompilationErrors = builder.compilationUnit.getProblems().length > 0;
+        return new SnippetSketch(builder.build());
+    }
+
+    /**
+     * Gets the preprocessed sketch.
+     * @return the preprocessed sketch
+     */
+    public PreprocessedSketch getSketch() {
+        return SKETCH;
+    }
+
+    /**
+     * Gets the problems in the sketch the way the error checker reports them to
+     * the editor. They are found the first time they are needed.
+     * @return the problems in the sketch
+     */
+    public List<Problem> getProblems() {
+        if (problems == null) {
+            problems = findProblems(SKETCH);
+        }
+
+        return problems;
+    }
+
+    /**
+     * Finds the problems in a sketch the way the error checker reports them to the editor.
+     * @param sketch    the preprocessed sketch
+     * @return the problems in the sketch
+     */
+    private static List<Problem> findProblems(PreprocessedSketch sketch) {
+        List<Problem> problems = new ArrayList<>();
+
+        for (IProblem rawProblem : sketch.compilationUnit.getProblems()) {
+            PreprocessedSketch.SketchInterval interval = sketch.mapJavaToSketch(rawProblem);
+            if (interval == PreprocessedSketch.SketchInterval.BEFORE_START) {
+                continue;
+            }
+
+            String message = ErrorMessageSimplifier.getSimplifiedErrorMessage(
+                    rawProblem, sketch.getPdeCode(interval)
+            );
+            int tabStart = sketch.tabStartOffsets[interval.tabIndex];
+            int line = 0;
+            for (int index = tabStart; index < interval.startPdeOffset; index++) {
+                if (sketch.pdeCode.charAt(index) == '\n') {
+                    line++;
+                }
+            }
+
+            problems.add(new SketchProblem(rawProblem, interval, line, message));
+        }
+
+        return problems;
+    }
+
+    /**
+     * A problem in a sketch, as the error checker would report it.
+     * @author soir20
+     */
+    private static class SketchProblem implements Problem {
+        private final IProblem RAW_PROBLEM;
+        private final PreprocessedSketch.SketchInterval INTERVAL;
+        private final int LINE;
+        private final String MESSAGE;
+
+        /**
+         * Creates a new problem.
+         * @param rawProblem    the compiler's problem
+         * @param interval      where the problem is in the sketch
+         * @param line          the line in the problem's tab, starting at 0
+         * @param message       the simplified message for the problem
+         */
+        public SketchProblem(IProblem rawProblem, PreprocessedSketch.SketchInterval interval, int line,
+                             String message) {
+            RAW_PROBLEM = rawProblem;
+            INTERVAL = interval;
+            LINE = line;
+            MESSAGE = message;
+        }
+
+        @Override
+        public boolean isError() {
+            return RAW_PROBLEM.isError();
+        }
+
+        @Override
+        public boolean isWarning() {
+            return RAW_PROBLEM.isWarning();
+        }
+
+        @Override
+        public int getTabIndex() {
+            return INTERVAL.tabIndex;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return LINE;
+        }
+
+        @Override
+        public String getMessage() {
+            return MESSAGE;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return INTERVAL.startTabOffset;
+        }
+
+        @Override
+        public int getStopOffset() {
+            return INTERVAL.stopTabOffset;
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package io.github.soir20.mode.helpfuljava.pdex;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Remembers the hints for problems in one tab while the tab's text stays the
+ * same. Problems are identified by their offsets within the tab, so edits in
+ * other tabs don't invalidate them. The compiler's arguments for a problem are
+ * part of its identity too, because they include the names and types it
+ * resolved, which can change when another tab is edited. Only used on the
+ * hint thread.
+ * @author soir20
+ */
+public class TabHintTable {
+    private final long FINGERPRINT;
+    private final Map<Key, Optional<HintDescriptor>> HINTS;
+
+    /**
+     * Creates an empty table.
+     * @param fingerprint   the fingerprint of the tab's text
+     */
+    public TabHintTable(long fingerprint) {
+        FINGERPRINT = fingerprint;
+        HINTS = new HashMap<>();
+    }
+
+    /**
+     * Computes the fingerprint of a tab's text.
+     * @param pdeCode       the code of all tabs
+     * @param start         the offset where the tab starts
+     * @param end           the offset where the tab ends
+     * @return the fingerprint of the tab's text
+     */
+    public static long fingerprint(String pdeCode, int start, int end) {
+        long hash = end - start;
+        for (int index = start; index < end; index++) {
+            hash = 31 * hash + pdeCode.charAt(index);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Checks whether this table is still valid for a tab's text.
+     * @param fingerprint   the fingerprint of the tab's current text
+     * @return whether the tab's text is the same as when this table was created
+     */
+    public boolean matches(long fingerprint) {
+        return FINGERPRINT == fingerprint;
+    }
+
+    /**
+     * Gets the hint for a problem in the tab.
+     * @param startOffset   the offset where the problem starts in the tab
+     * @param stopOffset    the offset where the problem stops in the tab
+     * @param problemId     the compiler's ID for the problem
+     * @param arguments     the compiler's arguments for the problem
+     * @return the hint, an empty if the problem has no hint, or null if the
+     *         problem hasn't been analyzed yet
+     */
+    public Optional<HintDescriptor> get(int startOffset, int stopOffset, int problemId, String[] arguments) {
+        return HINTS.get(new Key(startOffset, stopOffset, problemId, arguments));
+    }
+
+    /**
+     * Remembers the hint for a problem in the tab.
+     * @param startOffset   the offset where the problem starts in the tab
+     * @param stopOffset    the offset where the problem stops in the tab
+     * @param problemId     the compiler's ID for the problem
+     * @param arguments     the compiler's arguments for the problem
+     * @param hint          the hint for the problem or empty if it has none
+     */
+    public void put(int startOffset, int stopOffset, int problemId, String[] arguments,
+                    Optional<HintDescriptor> hint) {
+        HINTS.put(new Key(startOffset, stopOffset, problemId, arguments), hint);
+    }
+
+    /**
+     * Identifies a problem within a tab.
+     */
+    private static class Key {
+        private final int START_OFFSET;
+        private final int STOP_OFFSET;
+        private final int PROBLEM_ID;
+        private final String[] ARGUMENTS;
+
+        /**
+         * Creates a new key.
+         * @param startOffset   the offset where the problem starts in the tab
+         * @param stopOffset    the offset where the problem stops in the tab
+         * @param problemId     the compiler's ID for the problem
+         * @param arguments     the compiler's arguments for the problem
+         */
+        private Key(int startOffset, int stopOffset, int problemId, String[] arguments) {
+            START_OFFSET = startOffset;
+            STOP_OFFSET = stopOffset;
+            PROBLEM_ID = problemId;
+            ARGUMENTS = arguments;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key otherKey = (Key) other;
+            return START_OFFSET == otherKey.START_OFFSET && STOP_OFFSET == otherKey.STOP_OFFSET
+                    && PROBLEM_ID == otherKey.PROBLEM_ID && Arrays.equals(ARGUMENTS, otherKey.ARGUMENTS);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * START_OFFSET + STOP_OFFSET) + PROBLEM_ID) + Arrays.hashCode(ARGUMENTS);
+        }
+
+    }
+
+}
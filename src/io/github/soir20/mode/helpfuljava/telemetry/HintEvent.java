@@ -0,0 +1,55 @@
+package io.github.soir20.mode.helpfuljava.telemetry;
+
+/**
+ * Kinds of events recorded in the hint telemetry log. The codes are
+ * written to the log file, so they must never be reused or renumbered.
+ * Timing events store a duration in microseconds instead of a hint.
+ * @author soir20
+ */
+public enum HintEvent {
+    HINT_PUBLISHED(1, false),
+    HINT_CLEARED(2, false),
+    HINT_OPENED(3, false),
+    EDITOR_OPENED(4, true),
+    HINTS_INITIALIZED(5, true);
+
+    private final int CODE;
+    private final boolean IS_TIMING;
+
+    HintEvent(int code, boolean isTiming) {
+        CODE = code;
+        IS_TIMING = isTiming;
+    }
+
+    /**
+     * Gets the code stored in the log for this event.
+     * @return the code stored in the log for this event
+     */
+    public int getCode() {
+        return CODE;
+    }
+
+    /**
+     * Checks whether this event stores a duration in microseconds instead of a hint.
+     * @return whether this event stores a duration
+     */
+    public boolean isTiming() {
+        return IS_TIMING;
+    }
+
+    /**
+     * Gets the event for a code stored in the log.
+     * @param code      the code stored in the log
+     * @return the matching event or null if the code is unknown
+     */
+    public static HintEvent fromCode(int code) {
+        for (HintEvent event : values()) {
+            if (event.CODE == code) {
+                return event;
+            }
+        }
+
+        return null;
+    }
+
+}
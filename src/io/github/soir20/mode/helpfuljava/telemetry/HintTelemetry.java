@@ -0,0 +1,202 @@
+package io.github.soir20.mode.helpfuljava.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records hint events in an append-only ring buffer backed by a memory-mapped
+ * file. Recording an event only claims a slot with an atomic increment and writes
+ * a fixed-size record into the mapping without taking any locks, so it is safe
+ * to call from the EDT and from several threads at once. The operating system flushes the file in the
+ * background; {@link HintTelemetryReader} reads it offline.
+ * @author soir20
+ */
+public class HintTelemetry {
+    static final int MAGIC = 0x484A544C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 32;
+
+    // Header offsets
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_SIZE_OFFSET = 8;
+    static final int CAPACITY_OFFSET = 12;
+    static final int NEXT_SEQUENCE_OFFSET = 16;
+
+    // Record offsets
+    static final int SEQUENCE_OFFSET = 0;
+    static final int WALL_TIME_OFFSET = 8;
+    static final int NANO_TIME_OFFSET = 16;
+    static final int EVENT_OFFSET = 24;
+    static final int HINT_OFFSET = 28;
+
+    private final MappedByteBuffer BUFFER;
+    private final int CAPACITY_MASK;
+    private final AtomicLong NEXT_SEQUENCE;
+    private final AtomicLong HEADER_SEQUENCE;
+    private volatile int fence;
+
+    /**
+     * Creates telemetry that discards all events.
+     */
+    private HintTelemetry() {
+        BUFFER = null;
+        CAPACITY_MASK = 0;
+        NEXT_SEQUENCE = new AtomicLong();
+        HEADER_SEQUENCE = new AtomicLong();
+    }
+
+    /**
+     * Creates telemetry that writes to a mapped log file.
+     * @param buffer        the mapping of the whole log file
+     * @param capacity      the number of records in the ring
+     * @param nextSequence  the sequence number of the next record
+     */
+    private HintTelemetry(MappedByteBuffer buffer, int capacity, long nextSequence) {
+        BUFFER = buffer;
+        CAPACITY_MASK = capacity - 1;
+        NEXT_SEQUENCE = new AtomicLong(nextSequence);
+        HEADER_SEQUENCE = new AtomicLong(nextSequence);
+    }
+
+    /**
+     * Opens a telemetry log, creating it if it doesn't exist. If the existing log
+     * has a different layout, it is cleared. Telemetry is never worth breaking the
+     * editor for, so if the log can't be mapped, the returned telemetry discards
+     * all events.
+     * @param file          the log file
+     * @param capacity      the number of records in the ring; must be a power of two
+     * @return telemetry that writes to the log file
+     */
+    public static HintTelemetry open(File file, int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Telemetry capacity must be a power of two.");
+        }
+
+        if (file == null) {
+            return disabled();
+        }
+
+        long size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            boolean isSameLayout = buffer.getInt(MAGIC_OFFSET) == MAGIC
+                    && buffer.getInt(VERSION_OFFSET) == VERSION
+                    && buffer.getInt(RECORD_SIZE_OFFSET) == RECORD_SIZE
+                    && buffer.getInt(CAPACITY_OFFSET) == capacity;
+
+            long nextSequence = 0;
+            if (isSameLayout) {
+                nextSequence = findNextSequence(buffer, capacity);
+            } else {
+                for (int index = 0; index < size; index += Long.BYTES) {
+                    buffer.putLong(index, 0);
+                }
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.putInt(VERSION_OFFSET, VERSION);
+                buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+            }
+
+            return new HintTelemetry(buffer, capacity, nextSequence);
+        } catch (IOException | RuntimeException err) {
+            return disabled();
+        }
+    }
+
+    /**
+     * Finds where an existing log should resume. Writers don't wait for each other
+     * to update the header, so it can lag behind the newest record; the records'
+     * own sequences are checked as well so newer records aren't overwritten.
+     * @param buffer        the mapping of the whole log file
+     * @param capacity      the number of records in the ring
+     * @return the sequence number of the next record
+     */
+    private static long findNextSequence(MappedByteBuffer buffer, int capacity) {
+        long nextSequence = buffer.getLong(NEXT_SEQUENCE_OFFSET);
+
+        for (int slot = 0; slot < capacity; slot++) {
+            long storedSequence = buffer.getLong(HEADER_SIZE + slot * RECORD_SIZE + SEQUENCE_OFFSET);
+            nextSequence = Math.max(nextSequence, storedSequence);
+        }
+
+        return nextSequence;
+    }
+
+    /**
+     * Creates telemetry that discards all events.
+     * @return telemetry that discards all events
+     */
+    public static HintTelemetry disabled() {
+        return new HintTelemetry();
+    }
+
+    /**
+     * Records an event without taking any locks.
+     * @param event     the kind of event
+     * @param hint      an identifier for the hint the event is about
+     */
+    public void record(HintEvent event, int hint) {
+        if (BUFFER == null) {
+            return;
+        }
+
+        long sequence = NEXT_SEQUENCE.getAndIncrement();
+        int offset = HEADER_SIZE + (int) (sequence & CAPACITY_MASK) * RECORD_SIZE;
+
+        /* When the ring wraps, the slot still holds an older record. Its sequence is
+           cleared before the new payload is written so a reader never pairs the old
+           sequence with a half-written payload. The new sequence is written last so
+           the reader can tell finished records from ones that were cut off. It is
+           stored plus one because zero marks an empty slot. */
+        BUFFER.putLong(offset + SEQUENCE_OFFSET, 0);
+        storeFence();
+
+        BUFFER.putLong(offset + WALL_TIME_OFFSET, System.currentTimeMillis());
+        BUFFER.putLong(offset + NANO_TIME_OFFSET, System.nanoTime());
+        BUFFER.putInt(offset + EVENT_OFFSET, event.getCode());
+        BUFFER.putInt(offset + HINT_OFFSET, hint);
+        storeFence();
+
+        BUFFER.putLong(offset + SEQUENCE_OFFSET, sequence + 1);
+        advanceHeader(sequence + 1);
+    }
+
+    /**
+     * Moves the header's next sequence forward. The header only tells the next
+     * session where to resume, so a racing writer may leave it slightly behind;
+     * {@link #findNextSequence(MappedByteBuffer, int)} covers that when the log
+     * is opened again.
+     * @param nextSequence      the sequence after the record that was just written
+     */
+    private void advanceHeader(long nextSequence) {
+        long headerSequence = HEADER_SEQUENCE.get();
+        while (nextSequence > headerSequence) {
+            if (HEADER_SEQUENCE.compareAndSet(headerSequence, nextSequence)) {
+                BUFFER.putLong(NEXT_SEQUENCE_OFFSET, nextSequence);
+                return;
+            }
+
+            headerSequence = HEADER_SEQUENCE.get();
+        }
+    }
+
+    /**
+     * Keeps the writes to the mapping before this call from being reordered
+     * after the writes that follow it. Java 8 has no explicit fence, but a
+     * volatile write orders the stores around it.
+     */
+    private void storeFence() {
+        fence = 0;
+    }
+
+}
@@ -0,0 +1,219 @@
+package io.github.soir20.mode.helpfuljava.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline tool that reads a log written by {@link HintTelemetry}. It prints
+ * every event in order as CSV, followed by a summary of how long students took
+ * to open hints after they became available and how long startup took.
+ * @author soir20
+ */
+public class HintTelemetryReader {
+
+    /**
+     * Reads the log file given as the first argument.
+     * @param args      the path to the log file
+     * @throws IOException if the log can't be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: HintTelemetryReader <telemetry file>");
+            System.exit(1);
+        }
+
+        List<Record> records = read(new File(args[0]));
+        printRecords(records, System.out);
+        printSummary(records, System.out);
+    }
+
+    /**
+     * Reads all finished records in a log file, sorted from oldest to newest.
+     * @param file      the log file
+     * @return the records in the log
+     * @throws IOException if the file can't be read or is not a telemetry log
+     */
+    public static List<Record> read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.limit() < HintTelemetry.HEADER_SIZE
+                    || buffer.getInt(HintTelemetry.MAGIC_OFFSET) != HintTelemetry.MAGIC) {
+                throw new IOException(file + " is not a telemetry log.");
+            }
+
+            if (buffer.getInt(HintTelemetry.VERSION_OFFSET) != HintTelemetry.VERSION) {
+                throw new IOException(file + " was written by a different version of the mode.");
+            }
+
+            int recordSize = buffer.getInt(HintTelemetry.RECORD_SIZE_OFFSET);
+            int capacity = buffer.getInt(HintTelemetry.CAPACITY_OFFSET);
+
+            List<Record> records = new ArrayList<>();
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = HintTelemetry.HEADER_SIZE + slot * recordSize;
+                if (offset + recordSize > buffer.limit()) {
+                    break;
+                }
+
+                long sequence = buffer.getLong(offset + HintTelemetry.SEQUENCE_OFFSET);
+                HintEvent event = HintEvent.fromCode(buffer.getInt(offset + HintTelemetry.EVENT_OFFSET));
+                Record record = new Record(
+                        sequence - 1,
+                        buffer.getLong(offset + HintTelemetry.WALL_TIME_OFFSET),
+                        buffer.getLong(offset + HintTelemetry.NANO_TIME_OFFSET),
+                        event,
+                        buffer.getInt(offset + HintTelemetry.HINT_OFFSET)
+                );
+
+                // Skip empty slots, records that were cut off, and records overwritten while being read
+                boolean isRewritten = buffer.getLong(offset + HintTelemetry.SEQUENCE_OFFSET) != sequence;
+                if (sequence == 0 || event == null || isRewritten) {
+                    continue;
+                }
+
+                records.add(record);
+            }
+
+            records.sort(Comparator.comparingLong((record) -> record.SEQUENCE));
+            return records;
+        }
+    }
+
+    /**
+     * Prints records as CSV.
+     * @param records   the records to print
+     * @param out       the stream to print to
+     */
+    private static void printRecords(List<Record> records, PrintStream out) {
+        out.println("sequence,wallTimeMillis,event,hintOrMicros");
+        for (Record record : records) {
+            String value = record.EVENT.isTiming() ? String.valueOf(record.HINT) : Integer.toHexString(record.HINT);
+            out.println(record.SEQUENCE + "," + record.WALL_TIME + "," + record.EVENT + "," + value);
+        }
+    }
+
+    /**
+     * Prints the number of hints published and opened, the time from a hint
+     * becoming available to its first view, and the startup times.
+     * @param records   the records to summarize, oldest first
+     * @param out       the stream to print to
+     */
+    private static void printSummary(List<Record> records, PrintStream out) {
+        Map<Integer, Record> unopenedHints = new HashMap<>();
+        List<Long> timesToFirstView = new ArrayList<>();
+        List<Long> editorOpenTimes = new ArrayList<>();
+        List<Long> hintInitTimes = new ArrayList<>();
+        int published = 0;
+        int opened = 0;
+
+        for (Record record : records) {
+            switch (record.EVENT) {
+                case HINT_PUBLISHED:
+                    published++;
+                    unopenedHints.putIfAbsent(record.HINT, record);
+                    break;
+                case HINT_OPENED:
+                    opened++;
+                    Record publication = unopenedHints.remove(record.HINT);
+                    if (publication != null) {
+                        timesToFirstView.add(elapsedMillis(publication, record));
+                    }
+                    break;
+                case EDITOR_OPENED:
+                    editorOpenTimes.add((long) record.HINT);
+                    break;
+                case HINTS_INITIALIZED:
+                    hintInitTimes.add((long) record.HINT);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        out.println();
+        out.println("published," + published);
+        out.println("opened," + opened);
+        out.println("neverOpened," + unopenedHints.size());
+
+        printDistribution("MillisToFirstView", timesToFirstView, out);
+        printDistribution("MicrosToOpenEditor", editorOpenTimes, out);
+        printDistribution("MicrosToInitializeHints", hintInitTimes, out);
+    }
+
+    /**
+     * Prints the median and maximum of some measurements if there are any.
+     * @param name          the name of the measurement
+     * @param values        the measurements, which are sorted in place
+     * @param out           the stream to print to
+     */
+    private static void printDistribution(String name, List<Long> values, PrintStream out) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        Collections.sort(values);
+        out.println("median" + name + "," + values.get(values.size() / 2));
+        out.println("max" + name + "," + values.get(values.size() - 1));
+    }
+
+    /**
+     * Gets the time between two records. The monotonic clock is more precise, but it
+     * is only comparable within one session, so the wall clock is used across sessions.
+     * @param start     the earlier record
+     * @param end       the later record
+     * @return the milliseconds between the records
+     */
+    private static long elapsedMillis(Record start, Record end) {
+        long wallMillis = end.WALL_TIME - start.WALL_TIME;
+        long nanoMillis = TimeUnit.NANOSECONDS.toMillis(end.NANO_TIME - start.NANO_TIME);
+
+        if (Math.abs(wallMillis - nanoMillis) > TimeUnit.SECONDS.toMillis(1)) {
+            return wallMillis;
+        }
+
+        return nanoMillis;
+    }
+
+    /**
+     * A single event read from the log.
+     * @author soir20
+     */
+    public static class Record {
+        public final long SEQUENCE;
+        public final long WALL_TIME;
+        public final long NANO_TIME;
+        public final HintEvent EVENT;
+        public final int HINT;
+
+        /**
+         * Creates a new record.
+         * @param sequence      the order the event was recorded in
+         * @param wallTime      the wall clock time in milliseconds
+         * @param nanoTime      the monotonic clock time in nanoseconds
+         * @param event         the kind of event
+         * @param hint          the identifier for the hint the event is about
+         */
+        public Record(long sequence, long wallTime, long nanoTime, HintEvent event, int hint) {
+            SEQUENCE = sequence;
+            WALL_TIME = wallTime;
+            NANO_TIME = nanoTime;
+            EVENT = event;
+            HINT = hint;
+        }
+
+    }
+
+}
@@ -1,11 +1,14 @@
 package io.github.soir20.mode.helpfuljava.ui;
 
-import io.github.soir20.mode.helpfuljava.pdex.ErrorURLAssembler;
+import io.github.soir20.mode.helpfuljava.HelpfulJavaMode;
+import io.github.soir20.mode.helpfuljava.pdex.CompileMessageHints;
 import io.github.soir20.mode.helpfuljava.pdex.ErrorListener;
-import javafx.application.Platform;
-import javafx.embed.swing.JFXPanel;
-import javafx.scene.Scene;
-import javafx.scene.web.WebView;
+import io.github.soir20.mode.helpfuljava.pdex.HintDescriptor;
+import io.github.soir20.mode.helpfuljava.pdex.HintUrlEncoder;
+import io.github.soir20.mode.helpfuljava.pdex.HintWarmUp;
+import io.github.soir20.mode.helpfuljava.pdex.RuntimeExceptionHints;
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
+import io.github.soir20.mode.helpfuljava.web.HintPrefetcher;
 import processing.app.Base;
 import processing.app.Mode;
 import processing.app.Preferences;
@@ -22,12 +25,23 @@ import processing.mode.java.JavaEditor;
 import processing.mode.java.pdex.PreprocessedSketch;
 
 import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static processing.mode.java.JavaMode.errorCheckEnabled;
 
@@ -36,14 +50,25 @@ import static processing.mode.java.JavaMode.errorCheckEnabled;
  * @author soir20
  */
 public class HelpfulJavaEditor extends JavaEditor {
-    private JFXPanel hintsPanel;
-    private WebView webView;
+    private static final RuntimeExceptionHints RUNTIME_EXCEPTION_HINTS = new RuntimeExceptionHints();
 
-    private ErrorURLAssembler urlAssembler;
+    private HintDisplay hintView;
+
+    private HintUrlEncoder urlEncoder;
+    private CompileMessageHints compileMessageHints;
     private ErrorListener listener;
     private Consumer<PreprocessedSketch> preprocErrorPageHandler;
     private ScheduledExecutorService scheduler;
     private volatile ScheduledFuture<?> scheduledUiUpdate;
+    private Future<?> scheduledRefinement;
+    private SpeculativeHintWorker speculativeWorker;
+    private HintWarmUpWorker warmUpWorker;
+    private HintPrefetcher prefetcher;
+    private HintPrefetcher.Requester prefetchRequester;
+    private volatile boolean isDormant;
+    private volatile boolean hasMissedUpdate;
+    private Thread unloadHook;
+    private boolean isDisposed;
 
     /**
      * Creates a new editor.
@@ -56,11 +81,8 @@ public class HelpfulJavaEditor extends JavaEditor {
     public HelpfulJavaEditor(Base base, String path, EditorState state, Mode mode) throws EditorException {
         super(base, path, state, mode);
 
-        // If we don't set this, JavaFX will shut down when we change modes and stop loading error pages.
-        Platform.setImplicitExit(false);
-
         // Set the default error page but keep the first tab as the console
-        setErrorPage(listener.getLastUrl());
+        setErrorPage(listener.getLastHint());
         footer.setPanel(console);
 
         /* createToolbar is called in the constructor, so we have to let that method
@@ -68,48 +90,113 @@ public class HelpfulJavaEditor extends JavaEditor {
            has also been created. */
         updateListenerRegistration();
 
+        // Precompute hints near the caret while the user isn't typing
+        final int IDLE_DELAY = 400;
+        speculativeWorker = new SpeculativeHintWorker(listener, scheduler, this::getProblemsNearCaret,
+                () -> EventQueue.invokeLater(this::prefetchHints), IDLE_DELAY);
+        textarea.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent event) {
+                speculativeWorker.restart();
+                prefetcher.noteTyping();
+                if (warmUpWorker != null) {
+                    warmUpWorker.restart();
+                }
+            }
+        });
+
+        // Warm up the hint pipeline once the editor is idle so the first hint isn't slow
+        HelpfulJavaMode helpfulMode = (HelpfulJavaMode) mode;
+        if (helpfulMode.claimWarmUp()) {
+            final int WARM_UP_DELAY = 2000;
+            warmUpWorker = new HintWarmUpWorker(new HintWarmUp(helpfulMode.getWarmUpCorpus()), hintView::warmUp,
+                    WARM_UP_DELAY);
+            warmUpWorker.restart();
+        }
+
+        // Stop hint work while the window is in the background and catch up when it is focused again
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowActivated(WindowEvent event) {
+                resumeHints();
+            }
+
+            @Override
+            public void windowDeactivated(WindowEvent event) {
+                suspendHints();
+            }
+
+            @Override
+            public void windowDeiconified(WindowEvent event) {
+                resumeHints();
+            }
+
+            @Override
+            public void windowIconified(WindowEvent event) {
+                suspendHints();
+
+                // A minimized window can't be seen, so its page is unloaded to stop its scripts
+                hintView.unload();
+            }
+        });
+
         // Manually unload the page so its unload hooks are triggered on close
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> setErrorPageSilently("")));
+        unloadHook = new Thread(hintView::unload);
+        Runtime.getRuntime().addShutdownHook(unloadHook);
 
     }
 
     /**
      * Sets the page currently displayed in the hints tab.
      * and makes the hints tab the active tab.
-     * @param url       the URL to display
+     * @param hint      the hint to display
      */
-    public void setErrorPage(String url) {
-        footer.setPanel(hintsPanel);
-        setErrorPageSilently(url);
+    public void setErrorPage(HintDescriptor hint) {
+        footer.setPanel(hintView.getPanel());
+        setErrorPageSilently(hint);
     }
 
     /**
      * Sets the page currently displayed in the hints tab without changing tab.
-     * and makes the hints tab the active tab.
-     * @param url       the URL to display
+     * @param hint      the hint to display
      */
-    public void setErrorPageSilently(String url) {
-        Platform.runLater(() -> {
-            if (!url.equals(webView.getEngine().getLocation())) {
-                webView.getEngine().load(url);
-            }
-        });
+    public void setErrorPageSilently(HintDescriptor hint) {
+        hintView.show(hint, urlEncoder.getCacheKey(hint), urlEncoder.getUrl(hint));
     }
 
     /**
      * Checks for an error page update when the editor status bar is updated.
+     * The hint is usually precomputed; if not, it is computed on the hint thread.
      */
     @Override
     public void updateEditorStatus() {
         super.updateEditorStatus();
+
+        // Hints for the caret are found again when the editor is focused, and a closed editor's scheduler is stopped
+        if (isDormant || isDisposed) {
+            return;
+        }
+
+        // This is called during construction before the worker exists
+        if (speculativeWorker != null) {
+            speculativeWorker.restart();
+        }
+
         Problem currentProblem = findProblem(textarea.getCaretLine());
-        if (currentProblem != null) {
-            listener.updateAvailablePage(currentProblem);
+        if (currentProblem != null && !listener.updateAvailablePageIfReady(currentProblem)) {
+            long generation = listener.getGeneration();
+            scheduler.execute(() -> listener.findHint(currentProblem).ifPresent(
+                    (hint) -> EventQueue.invokeLater(() -> listener.updateAvailablePage(hint, generation))
+            ));
         }
     }
 
     /**
      * Updates the available (but not yet shown) error page for on-run errors.
+     * The message is classified on the scheduler thread so the EDT isn't blocked.
+     * Exceptions thrown while the sketch runs are reported here too, already
+     * placed in a tab and line. They get their own hints, which explain the
+     * exception locally if the hint server doesn't have its page.
      * @param err       the exception that occurred when trying to run the sketch
      */
     @Override
@@ -120,31 +207,71 @@ public class HelpfulJavaEditor extends JavaEditor {
             return;
         }
 
-        // Get the error page URL
         SketchException sketchErr = (SketchException) err;
         String message = err.getMessage();
-        Optional<String> optionalURL = Optional.empty();
+
+        /* The sketch's window usually has focus when it throws, so dormant editors
+           still find hints for errors. Only a closed editor's scheduler is stopped. */
+        if (message == null || isDisposed) {
+            return;
+        }
+
+        int codeIndex = sketchErr.getCodeIndex();
+        String tabName = codeIndex >= 0 && codeIndex < sketch.getCodeCount()
+                ? sketch.getCode(codeIndex).getPrettyName() : null;
+        Optional<HintDescriptor> runtimeHint = RUNTIME_EXCEPTION_HINTS.getHint(message, tabName,
+                sketchErr.getCodeLine() + 1);
+        if (runtimeHint.isPresent()) {
+            EventQueue.invokeLater(() -> listener.updateAvailablePage(runtimeHint.get()));
+            return;
+        }
 
         // Not all errors have a line and column
         int line = Math.max(sketchErr.getCodeLine(), 0);
         int column = Math.max(sketchErr.getCodeColumn(), 0);
 
-        String textAboveError = textarea.getText(
-                0,
-                textarea.getLineStartOffset(line) + column
-        );
-        if (message.equals("expecting EOF, found '}'") && textAboveError != null) {
-            optionalURL = urlAssembler.getClosingCurlyBraceURL(textAboveError);
-        } else if (message.startsWith("expecting DOT")) {
-            optionalURL = urlAssembler.getIncorrectVarDeclarationURL(textarea, sketchErr);
-        } else if (message.equals("It looks like you're mixing \"active\" and \"static\" modes.") && textAboveError != null) {
-            optionalURL = urlAssembler.getIncorrectMethodDeclarationURL(textAboveError);
-        } else if (message.startsWith("unexpected token:")) {
-            String token = message.substring(message.indexOf(':') + 1).trim();
-            optionalURL = urlAssembler.getUnexpectedTokenURL(token);
+        // Take a snapshot of the text because the text area can only be read on the EDT
+        String code = textarea.getText();
+        int errorOffset = textarea.getLineStartOffset(line) + column;
+
+        scheduler.execute(() -> getCompileMessageHints().getErrorPageUrl(message, code, errorOffset).ifPresent(
+                (hint) -> EventQueue.invokeLater(() -> listener.updateAvailablePage(hint.withExplanation(message)))
+        ));
+    }
+
+    /**
+     * Stops all hint work and releases the hint view when the editor closes, so
+     * nothing shared by the mode keeps the editor. The mode's shared threads stop
+     * once its last editor closes.
+     */
+    @Override
+    public void dispose() {
+
+        // Windows can be disposed more than once, but the editor only closes once
+        if (!isDisposed) {
+            isDisposed = true;
+
+            // Dormant editors don't start hint work, so late events don't reach the stopped scheduler
+            isDormant = true;
+            if (warmUpWorker != null) {
+                warmUpWorker.stop();
+            }
+            speculativeWorker.cancel();
+            scheduler.shutdownNow();
+
+            hintView.dispose();
+            try {
+                Runtime.getRuntime().removeShutdownHook(unloadHook);
+            } catch (IllegalStateException err) {
+
+                // Processing is already shutting down, so the hook unloads the page anyway
+
+            }
+
+            ((HelpfulJavaMode) mode).closeHintServices();
         }
 
-        optionalURL.ifPresent(listener::updateAvailablePage);
+        super.dispose();
     }
 
     /**
@@ -154,17 +281,37 @@ public class HelpfulJavaEditor extends JavaEditor {
      */
     @Override
     public EditorToolbar createToolbar() {
-        urlAssembler = new ErrorURLAssembler(true, 12);
-        listener = new ErrorListener(urlAssembler);
+        HintTelemetry telemetry = ((HelpfulJavaMode) mode).getTelemetry();
+        prefetcher = ((HelpfulJavaMode) mode).getPrefetcher();
+        prefetchRequester = prefetcher.createRequester();
+        urlEncoder = new HintUrlEncoder(((HelpfulJavaMode) mode).getHintServerUrl(), true);
+        listener = new ErrorListener(telemetry);
+        listener.addListener((hint) -> prefetchHints());
+        listener.addListener(this::refineAvailablePage);
         scheduler = Executors.newSingleThreadScheduledExecutor();
 
         final int DELAY = 650;
         preprocErrorPageHandler = (sketch) -> {
+
+            // Only the latest sketch matters, so it is analyzed once the editor is focused again
+            if (isDormant) {
+                hasMissedUpdate = true;
+                return;
+            }
+
             stopHelpButtonUpdate();
-            Runnable uiUpdater = () -> EventQueue.invokeLater(() -> listener.updateAvailablePage(sketch));
+
+            // Starting a new generation makes any analysis of the previous sketch stop early
+            long generation = listener.startGeneration();
+            Runnable uiUpdater = () -> listener.updateSketch(sketch, generation).ifPresent(
+                    (firstHint) -> EventQueue.invokeLater(() -> {
+                        listener.updateAvailablePage(firstHint, generation);
+                        speculativeWorker.restart();
+                    })
+            );
             scheduledUiUpdate = scheduler.schedule(uiUpdater, DELAY, TimeUnit.MILLISECONDS);
         };
-        return new HelpfulJavaToolbar(this, listener, this::setErrorPage);
+        return new HelpfulJavaToolbar(this, listener, this::setErrorPage, telemetry);
     }
 
     /**
@@ -194,14 +341,9 @@ public class HelpfulJavaEditor extends JavaEditor {
             dpiAdjustment = 72.0 / 96;
         }
 
-        urlAssembler.setFontSize(Toolkit.zoom(
+        hintView.setFontSize(Toolkit.zoom(
                 (int) Math.round(Preferences.getInteger("console.font.size") * dpiAdjustment)
         ));
-
-        if (!listener.hasPage()) {
-            listener.updateAvailablePage(urlAssembler.getDefaultUrl());
-            setErrorPageSilently(listener.getLastUrl());
-        }
     }
 
     /**
@@ -223,6 +365,143 @@ public class HelpfulJavaEditor extends JavaEditor {
         }
     }
 
+    /**
+     * Gets the problems in the sketch ordered by how soon the user is likely to
+     * need their hints: visible problems in the current tab first, then the rest
+     * of the current tab, then other tabs, each by distance from the caret.
+     * @return the problems in the sketch, most likely to be needed first
+     */
+    private List<Problem> getProblemsNearCaret() {
+        int currentTab = sketch.getCurrentCodeIndex();
+        int caretLine = textarea.getCaretLine();
+        int firstVisibleLine = textarea.getFirstLine();
+        int lastVisibleLine = firstVisibleLine + textarea.getVisibleLines();
+
+        Comparator<Problem> byLocation = Comparator.comparingInt((problem) -> {
+            if (problem.getTabIndex() != currentTab) {
+                return 2;
+            }
+
+            int line = problem.getLineNumber();
+            return line >= firstVisibleLine && line <= lastVisibleLine ? 0 : 1;
+        });
+        Comparator<Problem> byDistance = Comparator.comparingInt(
+                (problem) -> Math.abs(problem.getLineNumber() - caretLine)
+        );
+
+        return problems.stream().sorted(byLocation.thenComparing(byDistance)).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the hints for build messages, creating them the first time a build fails.
+     * Should be called on the hint thread.
+     * @return the hints for build messages
+     */
+    private CompileMessageHints getCompileMessageHints() {
+        if (compileMessageHints == null) {
+            compileMessageHints = new CompileMessageHints(listener.getUrlAssembler());
+        }
+
+        return compileMessageHints;
+    }
+
+    /**
+     * Prefetches the pages for the available hint and the other hints refined
+     * so far, so they show without delay when opened. Should be called on the EDT.
+     */
+    private void prefetchHints() {
+
+        // The Swing view doesn't show pages from the server
+        if (((HelpfulJavaMode) mode).usesSwingRenderer()) {
+            return;
+        }
+
+        List<HintDescriptor> hints = new ArrayList<>();
+        if (listener.hasPage()) {
+            hints.add(listener.getLastHint());
+        }
+        hints.addAll(listener.getRefinedHints());
+
+        Map<String, String> pages = new LinkedHashMap<>();
+        hints.forEach((hint) -> pages.putIfAbsent(urlEncoder.getCacheKey(hint), urlEncoder.getUrl(hint)));
+        prefetcher.prefetch(prefetchRequester, pages);
+    }
+
+    /**
+     * Refines the newly available page with bindings on the hint thread, replacing
+     * any refinement of an older page. The quick hint stays available until the
+     * refined hint is ready. Should be called on the EDT.
+     * @param hint      the newly available page
+     */
+    private void refineAvailablePage(HintDescriptor hint) {
+        if (scheduledRefinement != null) {
+            scheduledRefinement.cancel(true);
+        }
+
+        if (hint.isDefault() || isDisposed) {
+            return;
+        }
+
+        long generation = listener.getGeneration();
+        scheduledRefinement = scheduler.submit(() -> listener.refineHint(hint).ifPresent(
+                (refinedHint) -> EventQueue.invokeLater(
+                        () -> listener.replaceAvailablePage(hint, refinedHint, generation)
+                )
+        ));
+    }
+
+    /**
+     * Stops hint work while the editor is in the background, so editors that
+     * aren't being used don't take CPU time from the one that is. Analysis that
+     * hasn't finished is dropped and redone for the latest sketch when the
+     * editor is focused again. The sketch's AST is released too, so an editor
+     * in the background doesn't hold it while problems are left unrefined.
+     * Should be called on the EDT.
+     */
+    private void suspendHints() {
+        if (isDormant) {
+            return;
+        }
+
+        isDormant = true;
+        speculativeWorker.cancel();
+        if (warmUpWorker != null) {
+            warmUpWorker.cancel();
+        }
+        if (scheduledUiUpdate != null && scheduledUiUpdate.cancel(true)) {
+            hasMissedUpdate = true;
+        }
+        if (listener != null && listener.releaseSketch()) {
+            hasMissedUpdate = true;
+        }
+
+        hintView.setPaused(true);
+    }
+
+    /**
+     * Restarts hint work when the editor is focused again, analyzing the latest
+     * sketch once if any analysis was dropped. Should be called on the EDT.
+     */
+    private void resumeHints() {
+        if (!isDormant || isDisposed) {
+            return;
+        }
+
+        isDormant = false;
+        hintView.setPaused(false);
+        speculativeWorker.restart();
+        if (warmUpWorker != null) {
+            warmUpWorker.restart();
+        }
+
+        if (hasMissedUpdate) {
+            hasMissedUpdate = false;
+            if (errorCheckEnabled) {
+                preprocessingService.whenDone(preprocErrorPageHandler);
+            }
+        }
+    }
+
     /**
      * Cancels the next help button UI update.
      */
@@ -233,17 +512,20 @@ public class HelpfulJavaEditor extends JavaEditor {
     }
 
     /**
-     * Adds the hints tab to this editor's footer.
+     * Adds the hints tab to this editor's footer. JavaFX is only loaded when
+     * hints are shown as pages from the hint server.
      * @param footer    the footer to add the tab to
      */
     private void addEditorHints(EditorFooter footer) {
-        hintsPanel = new JFXPanel();
-        footer.addPanel(hintsPanel, "Hints", "/theme/footer/hint");
+        HelpfulJavaMode helpfulMode = (HelpfulJavaMode) mode;
+        if (helpfulMode.usesSwingRenderer()) {
+            hintView = new SwingHintView();
+        } else {
+            hintView = new HintView(helpfulMode.getPageCache(), helpfulMode.getPrefetcher(),
+                    helpfulMode.getConnectivityMonitor());
+        }
 
-        Platform.runLater(() -> {
-            webView = new WebView();
-            hintsPanel.setScene(new Scene(webView));
-        });
+        footer.addPanel(hintView.getPanel(), "Hints", "/theme/footer/hint");
     }
 
 }
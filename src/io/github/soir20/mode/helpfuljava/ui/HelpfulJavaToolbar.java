@@ -1,6 +1,9 @@
 package io.github.soir20.mode.helpfuljava.ui;
 
 import io.github.soir20.mode.helpfuljava.pdex.ErrorListener;
+import io.github.soir20.mode.helpfuljava.pdex.HintDescriptor;
+import io.github.soir20.mode.helpfuljava.telemetry.HintEvent;
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
 import processing.app.ui.Editor;
 import processing.app.ui.EditorButton;
 import processing.mode.java.JavaToolbar;
@@ -17,25 +20,29 @@ import java.util.function.Consumer;
  */
 public class HelpfulJavaToolbar extends JavaToolbar {
     private final ErrorListener LISTENER;
-    private final Consumer<String> UPDATE_PAGE_ACTION;
+    private final Consumer<HintDescriptor> UPDATE_PAGE_ACTION;
+    private final HintTelemetry TELEMETRY;
     private EditorButton helpButton;
 
-    private String openErrorUrl;
+    private HintDescriptor openErrorHint;
 
     /**
      * Creates a new editor toolbar.
      * @param editor            the editor to attach the toolbar to
      * @param listener          the listener that keeps track of the available error page
      * @param updatePageAction  updates the displayed error page on click
+     * @param telemetry         the log to record clicks in
      */
-    public HelpfulJavaToolbar(Editor editor, ErrorListener listener, Consumer<String> updatePageAction) {
+    public HelpfulJavaToolbar(Editor editor, ErrorListener listener, Consumer<HintDescriptor> updatePageAction,
+                              HintTelemetry telemetry) {
         super(editor);
 
         // We have to repaint the button to make sure the highlight is shown
         LISTENER = listener;
-        LISTENER.addListener((newErrorUrl) -> helpButton.repaint());
+        LISTENER.addListener((newErrorHint) -> helpButton.repaint());
 
         UPDATE_PAGE_ACTION = updatePageAction;
+        TELEMETRY = telemetry;
     }
 
     /**
@@ -50,8 +57,9 @@ public class HelpfulJavaToolbar extends JavaToolbar {
 
             @Override
             public void actionPerformed(ActionEvent event) {
-                openErrorUrl = LISTENER.getLastUrl();
-                UPDATE_PAGE_ACTION.accept(openErrorUrl);
+                openErrorHint = LISTENER.getLastHint();
+                TELEMETRY.record(HintEvent.HINT_OPENED, openErrorHint.hashCode());
+                UPDATE_PAGE_ACTION.accept(openErrorHint);
             }
 
             @Override
@@ -59,7 +67,7 @@ public class HelpfulJavaToolbar extends JavaToolbar {
                 super.paintComponent(graphics);
 
                 // This can be called even when the error page hasn't updated, so double check if page updated
-                if (LISTENER.hasPage() && !LISTENER.getLastUrl().equals(openErrorUrl)) {
+                if (LISTENER.hasPage() && !LISTENER.getLastHint().equals(openErrorHint)) {
                     graphics.drawImage(HIGHLIGHT_IMAGE, 0, 0, getWidth(), getHeight(), this);
                 }
 
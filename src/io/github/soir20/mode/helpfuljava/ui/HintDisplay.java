@@ -0,0 +1,60 @@
+package io.github.soir20.mode.helpfuljava.ui;
+
+import io.github.soir20.mode.helpfuljava.pdex.HintDescriptor;
+
+import java.awt.Component;
+
+/**
+ * Shows hints in the hints tab of the editor's footer.
+ * @author soir20
+ */
+public interface HintDisplay {
+
+    /**
+     * Gets the Swing component that contains the display.
+     * @return the component to put in the hints tab
+     */
+    Component getPanel();
+
+    /**
+     * Shows a hint. Can be called on any thread.
+     * @param hint      the hint to show
+     * @param cacheKey  the key of the hint's page in the page cache
+     * @param url       the URL of the hint's page on the hint server
+     */
+    void show(HintDescriptor hint, String cacheKey, String url);
+
+    /**
+     * Sets the base font size of the hints. Can be called on any thread.
+     * @param fontSize      the base font size in points
+     */
+    void setFontSize(int fontSize);
+
+    /**
+     * Renders a sample hint offscreen, so the first real hint shows as fast as
+     * later ones. The shown hint doesn't change. Can be called on any thread.
+     */
+    void warmUp();
+
+    /**
+     * Pauses or resumes the display while the editor is in the background. A
+     * hint shown while the display is paused appears when it is resumed. Can
+     * be called on any thread.
+     * @param isPaused      whether the display should be paused
+     */
+    void setPaused(boolean isPaused);
+
+    /**
+     * Releases the shown hint while the editor is minimized or closing. The hint
+     * is shown again when the display is resumed. Can be called on any thread.
+     */
+    void unload();
+
+    /**
+     * Unloads the shown hint and stops listening for anything outside the display
+     * because the editor is closing. The display can't be used afterward. Can be
+     * called on any thread.
+     */
+    void dispose();
+
+}
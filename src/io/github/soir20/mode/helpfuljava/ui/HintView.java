@@ -0,0 +1,493 @@
+package io.github.soir20.mode.helpfuljava.ui;
+
+import io.github.soir20.mode.helpfuljava.pdex.HintDescriptor;
+import io.github.soir20.mode.helpfuljava.web.ConnectivityMonitor;
+import io.github.soir20.mode.helpfuljava.web.HintPageCache;
+import io.github.soir20.mode.helpfuljava.web.HintPrefetcher;
+import javafx.application.Platform;
+import javafx.concurrent.Worker;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.Scene;
+import javafx.scene.web.WebView;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Displays hint pages in a web view. The view loads one shell page and then
+ * writes each hint into a new frame in it with JavaScript, which is much faster
+ * than loading every hint as a new page and keeps the browser history from
+ * growing. Each hint still gets its own document, like a normal page load.
+ * When the server can't be reached, a local page with the compiler's explanation
+ * is shown instead, and the page is requested again once the server is back. When
+ * the server answers with an error, the page is loaded directly so the server's
+ * own error page is shown, except for runtime exceptions, whose pages the server
+ * may not have yet, so their local explanation is shown instead.
+ * While the view is paused, it shows a blank page so hint pages don't run
+ * scripts in the background, and the requested page is shown when it resumes.
+ * @author soir20
+ */
+public class HintView implements HintDisplay {
+    private static final int MAX_HISTORY = 10;
+    private static final String FALLBACK_PREFIX = "fallback:";
+    private static final String FALLBACK_BASE_URL = "about:blank";
+    private static final String OFFLINE_NOTE = "The full hint can't be loaded because the hint server "
+            + "can't be reached. It will show here once the server is back.";
+    private static final String MISSING_PAGE_NOTE = "The hint server doesn't have a full hint for this error yet.";
+
+    // The web engine's default font size, which is 16 pixels
+    private static final double DEFAULT_FONT_SIZE = 12;
+
+    /* Replaces the shell's frame with a new one and writes a hint page into it. Each page
+       gets its own document and global scope, so its scripts run in order, its load events
+       fire, and nothing it declares or schedules outlives it. The base element makes the
+       page's relative URLs resolve against its real URL and opens its links in the view. */
+    private static final String SHELL_PAGE = "<!DOCTYPE html><html><head><meta charset=\"utf-8\"><style>"
+            + "html, body { margin: 0; height: 100%; overflow: hidden; }"
+            + "iframe { display: block; width: 100%; height: 100%; border: 0; }"
+            + "</style><script>"
+            + "var hintShell = { show: function (url, html) {"
+            + "  hintShell.clear();"
+            + "  var frame = document.createElement('iframe');"
+            + "  frame.id = 'hint-frame';"
+            + "  document.body.appendChild(frame);"
+            + "  var base = '<base href=\"' + hintShell.escape(url) + '\" target=\"_top\">';"
+            + "  var head = /<head(\\s[^>]*)?>/i;"
+            + "  var start = head.test(html) ? head : /^(\\s*<!DOCTYPE[^>]*>)?/i;"
+            + "  html = html.replace(start, function (tag) { return tag + base; });"
+            + "  var page = frame.contentWindow.document;"
+            + "  page.open(); page.write(html); page.close();"
+            + "  document.title = page.title;"
+            + "}, clear: function () {"
+            + "  var old = document.getElementById('hint-frame');"
+            + "  if (old) { document.body.removeChild(old); }"
+            + "  document.title = '';"
+            + "}, escape: function (text) {"
+            + "  return text.replace(/&/g, '&amp;').replace(/\"/g, '&quot;').replace(/</g, '&lt;');"
+            + "} };"
+            + "</script></head><body></body></html>";
+
+    private final JFXPanel PANEL;
+    private final HintPageCache CACHE;
+    private final HintPrefetcher PREFETCHER;
+    private final ConnectivityMonitor CONNECTIVITY;
+    private final Runnable RECONNECT_LISTENER;
+    private volatile PageRequest requestedPage;
+    private volatile boolean isPaused;
+
+    // Only used on the JavaFX thread
+    private WebView webView;
+    private boolean isShellLoading;
+    private boolean isShellLoaded;
+    private String displayedUrl;
+    private String pendingUrl;
+    private String pendingBaseUrl;
+    private String pendingPage;
+    private WebView warmUpView;
+
+    /**
+     * Creates a new view. Should be created on the EDT.
+     * @param cache         the cache to show prefetched pages from
+     * @param prefetcher    the prefetcher to fetch other pages with
+     * @param connectivity  the monitor that says when the hint server is back
+     */
+    public HintView(HintPageCache cache, HintPrefetcher prefetcher, ConnectivityMonitor connectivity) {
+        // If we don't set this, JavaFX will shut down when we change modes and stop loading error pages.
+        Platform.setImplicitExit(false);
+
+        PANEL = new JFXPanel();
+        CACHE = cache;
+        PREFETCHER = prefetcher;
+        CONNECTIVITY = connectivity;
+
+        // Keep the listener so the same instance can be removed when the view is disposed
+        RECONNECT_LISTENER = this::retryRequestedPage;
+        CONNECTIVITY.addReconnectListener(RECONNECT_LISTENER);
+
+        Platform.runLater(() -> {
+            webView = new WebView();
+            webView.getEngine().getHistory().setMaxSize(MAX_HISTORY);
+            webView.getEngine().getLoadWorker().stateProperty().addListener(
+                    (observable, oldState, newState) -> onLoadStateChanged(newState)
+            );
+            PANEL.setScene(new Scene(webView));
+        });
+    }
+
+    /**
+     * Gets the Swing component that contains the view.
+     * @return the panel that contains the view
+     */
+    @Override
+    public JFXPanel getPanel() {
+        return PANEL;
+    }
+
+    /**
+     * Shows a hint's page. Can be called on any thread.
+     * @param hint      the hint to show, whose explanation is shown if the page
+     *                  can't be fetched
+     * @param cacheKey  the key of the hint's page in the page cache
+     * @param url       the URL of the hint's page on the hint server
+     */
+    @Override
+    public void show(HintDescriptor hint, String cacheKey, String url) {
+        show(new PageRequest(cacheKey, url, hint.getExplanation().orElse(null),
+                hint.getKind().isRuntimeException()));
+    }
+
+    /**
+     * Sets the base font size of the hints. The size is applied by scaling all
+     * text in the view, so it works whether a page sizes its text relative to
+     * the default size or in pixels, and the shown page is restyled in place.
+     * Can be called on any thread.
+     * @param fontSize      the base font size in points
+     */
+    @Override
+    public void setFontSize(int fontSize) {
+
+        // Runs after the web view is created because JavaFX runs tasks in order
+        Platform.runLater(() -> webView.setFontScale(fontSize / DEFAULT_FONT_SIZE));
+    }
+
+    /**
+     * Renders a local page in the shell in an offscreen web view, so the web
+     * engine, the shell's scripts, and the page's layout are ready before the
+     * first real hint. The offscreen view is discarded afterward, and the shown
+     * page doesn't change. Can be called on any thread.
+     */
+    @Override
+    public void warmUp() {
+        String page = renderFallbackPage("This page warms up the hint view and is never shown.", OFFLINE_NOTE);
+
+        Platform.runLater(() -> {
+            warmUpView = new WebView();
+            warmUpView.getEngine().getLoadWorker().stateProperty().addListener((observable, oldState, newState) -> {
+                if (newState == Worker.State.SUCCEEDED && warmUpView != null) {
+                    warmUpView.getEngine().executeScript("hintShell.show(" + toJsString(FALLBACK_BASE_URL) + ", "
+                            + toJsString(page) + ")");
+                    warmUpView = null;
+                }
+            });
+            warmUpView.getEngine().loadContent(SHELL_PAGE);
+        });
+    }
+
+    /**
+     * Pauses or resumes the view. The shown page is blanked while the view is
+     * paused, so its scripts stop, but the shell stays loaded, so the page is
+     * written into it again from the cache when the view resumes. Pages requested
+     * in the meantime are only shown when the view resumes. Can be called on any thread.
+     * @param isPaused      whether the view should be paused
+     */
+    @Override
+    public void setPaused(boolean isPaused) {
+        this.isPaused = isPaused;
+
+        if (isPaused) {
+            Platform.runLater(this::blank);
+        } else {
+            retryRequestedPage();
+        }
+    }
+
+    /**
+     * Unloads the shown page so its unload hooks run and its scripts stop. The
+     * requested page is kept, so it is shown again when the view is resumed. Can
+     * be called on any thread.
+     */
+    @Override
+    public void unload() {
+        Platform.runLater(() -> load(""));
+    }
+
+    /**
+     * Unloads the shown page and stops retrying it when the hint server comes
+     * back, so the monitor doesn't keep the closed editor's view. Can be called
+     * on any thread.
+     */
+    @Override
+    public void dispose() {
+        CONNECTIVITY.removeReconnectListener(RECONNECT_LISTENER);
+        requestedPage = null;
+        unload();
+    }
+
+    /**
+     * Shows a hint page. Can be called on any thread.
+     * @param request       the page to show
+     */
+    private void show(PageRequest request) {
+        requestedPage = request;
+        String url = request.URL;
+
+        // The page is shown when the view resumes
+        if (isPaused) {
+            return;
+        }
+
+        Optional<String> cachedPage = CACHE.get(request.CACHE_KEY);
+        if (cachedPage.isPresent()) {
+            Platform.runLater(() -> {
+                if (!isPaused) {
+                    showPage(url, url, cachedPage.get());
+                }
+            });
+            return;
+        }
+
+        PREFETCHER.fetchNow(request.CACHE_KEY, url, (page) -> Platform.runLater(() -> {
+
+            // Another page may have been requested or the view paused while this one was fetched
+            if (isPaused || requestedPage != request) {
+                return;
+            }
+
+            if (page.isPresent()) {
+                showPage(url, url, page.get());
+            } else {
+                showPage(FALLBACK_PREFIX + url, FALLBACK_BASE_URL,
+                        renderFallbackPage(request.EXPLANATION, OFFLINE_NOTE));
+            }
+
+        }), () -> Platform.runLater(() -> {
+            if (isPaused || requestedPage != request) {
+                return;
+            }
+
+            if (request.IS_EXPLAINED_ON_ERROR) {
+                showPage(FALLBACK_PREFIX + url, FALLBACK_BASE_URL,
+                        renderFallbackPage(request.EXPLANATION, MISSING_PAGE_NOTE));
+            } else {
+                load(url);
+            }
+        }));
+    }
+
+    /**
+     * Requests the page that should be shown again after the hint server comes
+     * back, in case the fallback page is shown instead, or after the view resumes.
+     */
+    private void retryRequestedPage() {
+        PageRequest request = requestedPage;
+        if (request != null) {
+            show(request);
+        }
+    }
+
+    /**
+     * Shows a page's HTML in the shell, loading the shell first if needed.
+     * Should be called on the JavaFX thread.
+     * @param url           the URL that identifies the page
+     * @param baseUrl       the URL that links in the page are relative to
+     * @param page          the page's HTML
+     */
+    private void showPage(String url, String baseUrl, String page) {
+        if (url.equals(displayedUrl)) {
+            return;
+        }
+
+        if (!isShellLoaded) {
+            pendingUrl = url;
+            pendingBaseUrl = baseUrl;
+            pendingPage = page;
+            if (!isShellLoading) {
+                isShellLoading = true;
+                webView.getEngine().loadContent(SHELL_PAGE);
+            }
+            return;
+        }
+
+        displayedUrl = url;
+        webView.getEngine().executeScript("hintShell.show(" + toJsString(baseUrl) + ", " + toJsString(page) + ")");
+    }
+
+    /**
+     * Removes the shown page so its scripts stop, keeping the shell if it is
+     * loaded. A page waiting for the shell is dropped. Should be called on the
+     * JavaFX thread.
+     */
+    private void blank() {
+
+        // The view may have resumed before this ran
+        if (!isPaused) {
+            return;
+        }
+
+        if (isShellLoaded) {
+            displayedUrl = null;
+            webView.getEngine().executeScript("hintShell.clear()");
+        } else if (isShellLoading) {
+            pendingUrl = null;
+            pendingBaseUrl = null;
+            pendingPage = null;
+        } else {
+            load("");
+        }
+    }
+
+    /**
+     * Loads a page normally, replacing the shell. Should be called on the JavaFX thread.
+     * @param url       the URL of the page
+     */
+    private void load(String url) {
+        if (url.equals(displayedUrl)) {
+            return;
+        }
+
+        displayedUrl = url;
+        isShellLoading = false;
+        isShellLoaded = false;
+        pendingUrl = null;
+        pendingBaseUrl = null;
+        pendingPage = null;
+        webView.getEngine().load(url);
+    }
+
+    /**
+     * Shows the page that was waiting for the shell once the shell loads.
+     * Should be called on the JavaFX thread.
+     * @param state     the new state of the web engine's loading
+     */
+    private void onLoadStateChanged(Worker.State state) {
+        if (state != Worker.State.SUCCEEDED) {
+            return;
+        }
+
+        // The user followed a link, so the shell or the loaded hint is gone
+        if (!isShellLoading) {
+            if (!Objects.equals(webView.getEngine().getLocation(), displayedUrl)) {
+                isShellLoaded = false;
+                displayedUrl = null;
+            }
+            return;
+        }
+
+        isShellLoading = false;
+        isShellLoaded = true;
+        if (pendingUrl != null) {
+            String url = pendingUrl;
+            String baseUrl = pendingBaseUrl;
+            String page = pendingPage;
+            pendingUrl = null;
+            pendingBaseUrl = null;
+            pendingPage = null;
+            showPage(url, baseUrl, page);
+        }
+    }
+
+    /**
+     * Creates the page shown when a hint page can't be fetched.
+     * @param explanation       the compiler's explanation of the error or null if there is none
+     * @param note              says why the full hint isn't shown
+     * @return the fallback page's HTML
+     */
+    private static String renderFallbackPage(String explanation, String note) {
+        StringBuilder page = new StringBuilder("<!DOCTYPE html><html><head><title>Hint</title><style>"
+                + "body { font-family: sans-serif; margin: 1em; } .offline { color: #666; font-size: 0.9em; }"
+                + "</style></head><body>");
+
+        if (explanation != null && !explanation.isEmpty()) {
+            page.append("<p>").append(escapeHtml(explanation)).append("</p>");
+        }
+
+        return page.append("<p class=\"offline\">").append(note).append("</p></body></html>").toString();
+    }
+
+    /**
+     * Escapes text so it can be put in HTML.
+     * @param text      the text to escape
+     * @return the escaped text
+     */
+    private static String escapeHtml(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            switch (character) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                case '\'':
+                    escaped.append("&#39;");
+                    break;
+                default:
+                    escaped.append(character);
+            }
+        }
+
+        return escaped.toString();
+    }
+
+    /**
+     * Quotes text as a JavaScript string literal.
+     * @param text      the text to quote
+     * @return the string literal
+     */
+    private static String toJsString(String text) {
+        StringBuilder literal = new StringBuilder(text.length() + 16).append('"');
+
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            switch (character) {
+                case '"':
+                    literal.append("\\\"");
+                    break;
+                case '\\':
+                    literal.append("\\\\");
+                    break;
+                case '\n':
+                    literal.append("\\n");
+                    break;
+                case '\r':
+                    literal.append("\\r");
+                    break;
+                case '\u2028':
+                case '\u2029':
+                    literal.append(String.format("\\u%04x", (int) character));
+                    break;
+                default:
+                    literal.append(character);
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    /**
+     * A page that was requested, with everything needed to show it again.
+     */
+    private static final class PageRequest {
+        private final String CACHE_KEY;
+        private final String URL;
+        private final String EXPLANATION;
+        private final boolean IS_EXPLAINED_ON_ERROR;
+
+        /**
+         * Creates a new request.
+         * @param cacheKey              the key of the page in the page cache
+         * @param url                   the URL of the page on the hint server
+         * @param explanation           the compiler's explanation of the error to show if
+         *                              the page can't be fetched, or null if there is none
+         * @param isExplainedOnError    whether to show the explanation instead of the
+         *                              server's error page if the server answers with an error
+         */
+        private PageRequest(String cacheKey, String url, String explanation, boolean isExplainedOnError) {
+            CACHE_KEY = cacheKey;
+            URL = url;
+            EXPLANATION = explanation;
+            IS_EXPLAINED_ON_ERROR = isExplainedOnError;
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+package io.github.soir20.mode.helpfuljava.ui;
+
+import io.github.soir20.mode.helpfuljava.pdex.HintWarmUp;
+
+import javax.swing.*;
+import java.awt.EventQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a {@link HintWarmUp} on a low-priority thread once the editor is idle.
+ * Any user action interrupts the warm-up, which continues from where it
+ * stopped the next time the editor is idle. Once the warm-up is done, its
+ * thread is stopped and user actions are ignored.
+ * @author soir20
+ */
+public class HintWarmUpWorker {
+    private final HintWarmUp WARM_UP;
+    private final Runnable FINISHED_ACTION;
+    private final Timer IDLE_TIMER;
+    private ExecutorService executor;
+    private Future<?> warmUp;
+    private boolean isDone;
+
+    /**
+     * Creates a new worker. Should be created on the EDT.
+     * @param warmUp            the warm-up to run
+     * @param finishedAction    run on the EDT after the warm-up is done
+     * @param idleDelay         milliseconds without user actions before the
+     *                          editor is considered idle
+     */
+    public HintWarmUpWorker(HintWarmUp warmUp, Runnable finishedAction, int idleDelay) {
+        WARM_UP = warmUp;
+        FINISHED_ACTION = finishedAction;
+
+        IDLE_TIMER = new Timer(idleDelay, (event) -> start());
+        IDLE_TIMER.setRepeats(false);
+    }
+
+    /**
+     * Interrupts the warm-up and waits for the editor to be idle again. Should
+     * be called on the EDT whenever the user acts.
+     */
+    public void restart() {
+        if (isDone) {
+            return;
+        }
+
+        cancel();
+        IDLE_TIMER.restart();
+    }
+
+    /**
+     * Interrupts the warm-up without waiting for the editor to be idle again.
+     * Should be called on the EDT.
+     */
+    public void cancel() {
+        IDLE_TIMER.stop();
+        if (warmUp != null) {
+            warmUp.cancel(true);
+            warmUp = null;
+        }
+    }
+
+    /**
+     * Stops the warm-up for good, such as when the editor closes. Should be called on the EDT.
+     */
+    public void stop() {
+        cancel();
+        isDone = true;
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Starts or continues the warm-up on its thread. A single thread is used so
+     * an interrupted warm-up never runs at the same time as its continuation.
+     */
+    private void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor((task) -> {
+                Thread thread = new Thread(task, "Hint warm-up");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+
+        warmUp = executor.submit(() -> {
+            if (WARM_UP.run()) {
+                EventQueue.invokeLater(this::finish);
+            }
+        });
+    }
+
+    /**
+     * Stops the warm-up's thread and runs the finished action. Should be called on the EDT.
+     */
+    private void finish() {
+        if (isDone) {
+            return;
+        }
+
+        isDone = true;
+        warmUp = null;
+        executor.shutdown();
+        FINISHED_ACTION.run();
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.github.soir20.mode.helpfuljava.ui;
+
+import io.github.soir20.mode.helpfuljava.pdex.ErrorListener;
+import processing.app.Problem;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Computes hints ahead of time while the editor is idle so they are ready
+ * before the caret reaches a problem. Any user action cancels the work in
+ * progress and restarts the idle countdown.
+ * @author soir20
+ */
+public class SpeculativeHintWorker {
+    private final ErrorListener LISTENER;
+    private final ExecutorService HINT_EXECUTOR;
+    private final Supplier<List<Problem>> PROBLEM_SUPPLIER;
+    private final Runnable PRECOMPUTED_ACTION;
+    private final Timer IDLE_TIMER;
+    private Future<?> precomputation;
+
+    /**
+     * Creates a new worker. Should be created on the EDT.
+     * @param listener          the listener to compute hints with
+     * @param hintExecutor      the executor for the hint thread
+     * @param problemSupplier   supplies the problems to compute hints for, most
+     *                          important first; called on the EDT
+     * @param precomputedAction run on the hint thread after all hints are
+     *                          computed without being cancelled
+     * @param idleDelay         milliseconds without user actions before the
+     *                          editor is considered idle
+     */
+    public SpeculativeHintWorker(ErrorListener listener, ExecutorService hintExecutor,
+                                 Supplier<List<Problem>> problemSupplier, Runnable precomputedAction,
+                                 int idleDelay) {
+        LISTENER = listener;
+        HINT_EXECUTOR = hintExecutor;
+        PROBLEM_SUPPLIER = problemSupplier;
+        PRECOMPUTED_ACTION = precomputedAction;
+
+        IDLE_TIMER = new Timer(idleDelay, (event) -> precompute());
+        IDLE_TIMER.setRepeats(false);
+    }
+
+    /**
+     * Cancels any work in progress and waits for the editor to be idle again.
+     * Should be called on the EDT whenever the user acts or the problems change.
+     */
+    public void restart() {
+        cancel();
+        IDLE_TIMER.restart();
+    }
+
+    /**
+     * Cancels any work in progress without waiting for the editor to be idle again.
+     * Should be called on the EDT.
+     */
+    public void cancel() {
+        IDLE_TIMER.stop();
+        if (precomputation != null) {
+            precomputation.cancel(true);
+            precomputation = null;
+        }
+    }
+
+    /**
+     * Starts computing hints on the hint thread.
+     */
+    private void precompute() {
+        List<Problem> problems = PROBLEM_SUPPLIER.get();
+        if (!problems.isEmpty()) {
+            precomputation = HINT_EXECUTOR.submit(() -> {
+                long generation = LISTENER.getGeneration();
+                LISTENER.precomputeHints(problems);
+
+                if (!Thread.currentThread().isInterrupted() && LISTENER.getGeneration() == generation) {
+                    PRECOMPUTED_ACTION.run();
+                }
+            });
+        }
+    }
+
+}
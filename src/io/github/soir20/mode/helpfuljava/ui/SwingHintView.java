@@ -0,0 +1,253 @@
+package io.github.soir20.mode.helpfuljava.ui;
+
+import io.github.soir20.mode.helpfuljava.pdex.HintDescriptor;
+import io.github.soir20.mode.helpfuljava.pdex.PageKind;
+
+import javax.swing.BorderFactory;
+import javax.swing.Box;
+import javax.swing.BoxLayout;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Font;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Shows hints with plain Swing components instead of pages from the hint
+ * server, for machines where JavaFX is missing or too heavy. The hint's
+ * explanation, its code snippets, and its other parameters are shown from the
+ * same hint data that the server's pages are built from, so nothing is
+ * requested over the network and JavaFX is never loaded.
+ * @author soir20
+ */
+public class SwingHintView implements HintDisplay {
+    private static final String NO_HINT_TEXT = "There are no errors in your sketch right now.";
+    private static final int GAP = 8;
+    private static final Map<PageKind, String[]> PARAM_LABELS = createParamLabels();
+
+    private final JPanel CONTENT;
+    private final JScrollPane PANEL;
+    private HintDescriptor shownHint;
+    private int fontSize;
+
+    /**
+     * Creates a new view that shows nothing until a hint is shown.
+     */
+    public SwingHintView() {
+        CONTENT = new JPanel();
+        CONTENT.setLayout(new BoxLayout(CONTENT, BoxLayout.Y_AXIS));
+        CONTENT.setBorder(BorderFactory.createEmptyBorder(GAP, GAP, GAP, GAP));
+
+        JPanel topAligned = new JPanel(new BorderLayout());
+        topAligned.add(CONTENT, BorderLayout.NORTH);
+
+        PANEL = new JScrollPane(topAligned);
+        PANEL.setBorder(BorderFactory.createEmptyBorder());
+        fontSize = new JLabel().getFont().getSize();
+    }
+
+    /**
+     * Gets the Swing component that contains the view.
+     * @return the scroll pane that contains the view
+     */
+    @Override
+    public JComponent getPanel() {
+        return PANEL;
+    }
+
+    /**
+     * Shows a hint. Can be called on any thread.
+     * @param hint      the hint to show
+     * @param cacheKey  the key of the hint's page, which isn't needed to show the hint
+     * @param url       the URL of the hint's page, which isn't needed to show the hint
+     */
+    @Override
+    public void show(HintDescriptor hint, String cacheKey, String url) {
+        EventQueue.invokeLater(() -> {
+            shownHint = hint;
+            render();
+        });
+    }
+
+    /**
+     * Sets the base font size of the hints and shows the current hint again
+     * with it. Can be called on any thread.
+     * @param fontSize      the base font size in points
+     */
+    @Override
+    public void setFontSize(int fontSize) {
+        EventQueue.invokeLater(() -> {
+            this.fontSize = fontSize;
+            render();
+        });
+    }
+
+    /**
+     * Does nothing because the editor already uses the same Swing components.
+     */
+    @Override
+    public void warmUp() {}
+
+    /**
+     * Does nothing because Swing doesn't do any work for components that aren't shown.
+     * @param isPaused      whether the view should be paused
+     */
+    @Override
+    public void setPaused(boolean isPaused) {}
+
+    /**
+     * Does nothing because the view doesn't hold any resources outside Swing.
+     */
+    @Override
+    public void unload() {}
+
+    /**
+     * Does nothing because the view doesn't listen for anything outside Swing.
+     */
+    @Override
+    public void dispose() {}
+
+    /**
+     * Replaces the view's components with ones for the shown hint. Should be called on the EDT.
+     */
+    private void render() {
+        CONTENT.removeAll();
+
+        if (shownHint == null || shownHint.isDefault()) {
+            addText(NO_HINT_TEXT);
+        } else {
+            PageKind kind = shownHint.getKind();
+            addTitle(describeKind(kind));
+            shownHint.getExplanation().ifPresent(this::addText);
+
+            String[] labels = PARAM_LABELS.get(kind);
+            for (int index = 0; index < kind.getParamCount(); index++) {
+                String value = shownHint.getParam(index);
+                String label = labels == null ? kind.getParamName(index) : labels[index];
+                if (value == null || label == null) {
+                    continue;
+                }
+
+                if (kind.isSnippet(index)) {
+                    addSnippet(label, value);
+                } else {
+                    addText(label + ": " + value);
+                }
+            }
+        }
+
+        CONTENT.revalidate();
+        CONTENT.repaint();
+    }
+
+    /**
+     * Adds a bold title to the view.
+     * @param title     the text of the title
+     */
+    private void addTitle(String title) {
+        JLabel label = new JLabel(title);
+        label.setFont(label.getFont().deriveFont(Font.BOLD, fontSize * 1.25f));
+        addRow(label);
+    }
+
+    /**
+     * Adds wrapped, selectable text to the view.
+     * @param text      the text to add
+     */
+    private void addText(String text) {
+        JTextArea area = createTextArea(text, new JLabel().getFont().deriveFont((float) fontSize));
+        area.setLineWrap(true);
+        area.setWrapStyleWord(true);
+        addRow(area);
+    }
+
+    /**
+     * Adds a labeled code snippet to the view, keeping its line breaks and indentation.
+     * @param label     the label of the snippet's parameter
+     * @param snippet   the code in the snippet
+     */
+    private void addSnippet(String label, String snippet) {
+        addText(label + ":");
+
+        JTextArea area = createTextArea(snippet, new Font(Font.MONOSPACED, Font.PLAIN, fontSize));
+        area.setBorder(BorderFactory.createEmptyBorder(GAP / 2, GAP * 2, GAP / 2, GAP));
+        addRow(area);
+    }
+
+    /**
+     * Creates a read-only text area that looks like the rest of the view.
+     * @param text      the text in the area
+     * @param font      the font of the text
+     * @return the new text area
+     */
+    private static JTextArea createTextArea(String text, Font font) {
+        JTextArea area = new JTextArea(text);
+        area.setEditable(false);
+        area.setOpaque(false);
+        area.setFont(font);
+        return area;
+    }
+
+    /**
+     * Adds a component to the view below the others.
+     * @param component     the component to add
+     */
+    private void addRow(JComponent component) {
+        component.setAlignmentX(Component.LEFT_ALIGNMENT);
+        CONTENT.add(component);
+        CONTENT.add(Box.createVerticalStrut(GAP / 2));
+    }
+
+    /**
+     * Makes a readable title from the kind of a hint, like "Type mismatch".
+     * @param kind      the kind of hint
+     * @return the title for the kind
+     */
+    private static String describeKind(PageKind kind) {
+        String words = kind.name().replace('_', ' ').toLowerCase();
+        return Character.toUpperCase(words.charAt(0)) + words.substring(1);
+    }
+
+    /**
+     * Creates the readable labels for each kind's parameters, in the same order
+     * as the parameters. The same parameter name can mean different things on
+     * different pages, so the labels are chosen per kind. Parameters that only
+     * hold example names for the server's pages have no label and aren't shown.
+     * @return the labels for the parameters of each kind
+     */
+    private static Map<PageKind, String[]> createParamLabels() {
+        Map<PageKind, String[]> labels = new EnumMap<>(PageKind.class);
+        labels.put(PageKind.EXTRANEOUS_CLOSING_CURLY_BRACE, new String[] {"Your code", "Code without the extra brace"});
+        labels.put(PageKind.INCORRECT_VARIABLE_DECLARATION, new String[] {"Type", "Variable"});
+        labels.put(PageKind.INCORRECT_METHOD_DECLARATION, new String[] {"Method"});
+        labels.put(PageKind.MISSING_ARRAY_DIMENSION, new String[] {"Array type", "Array"});
+        labels.put(PageKind.MISSING_FIRST_ARRAY_DIMENSION, new String[] {"Array type", "Array"});
+        labels.put(PageKind.TWO_ARRAY_INITIALIZERS, new String[] {"Array type", "Array"});
+        labels.put(PageKind.METHOD_NOT_FOUND, new String[] {"Method", null, "Expected return type",
+                "Arguments", "Argument types"});
+        labels.put(PageKind.PARAMETER_MISMATCH, new String[] {"Tab", "Method", "Return type",
+                "Argument types", "Parameter types"});
+        labels.put(PageKind.RETURN_MISSING, new String[] {"Method", "Return type", "Parameter types"});
+        labels.put(PageKind.TYPE_MISMATCH, new String[] {"Type found", "Type required", "Variable"});
+        labels.put(PageKind.TYPE_NOT_FOUND, new String[] {"Missing type", null, "Variable"});
+        labels.put(PageKind.VARIABLE_NOT_FOUND, new String[] {"Expected type", "Variable"});
+        labels.put(PageKind.VARIABLE_NOT_INITIALIZED, new String[] {"Variable", "Type"});
+        labels.put(PageKind.UNEXPECTED_TOKEN, new String[] {"Type"});
+        labels.put(PageKind.NON_STATIC_FROM_STATIC, new String[] {"Non-static method", "Static method",
+                "Static method's return type", "Non-static method's return type", "Tab"});
+        labels.put(PageKind.VARIABLE_DECLARATORS, new String[] {"Method", "Type"});
+        labels.put(PageKind.METHOD_CALL_ON_WRONG_TYPE, new String[] {"Method", "Return type", "Type", "Variable"});
+        labels.put(PageKind.ARRAY_INDEX_OUT_OF_BOUNDS, new String[] {"Tab", "Line", "Message"});
+        labels.put(PageKind.NULL_POINTER, new String[] {"Tab", "Line", "Message"});
+        labels.put(PageKind.CLASS_CAST, new String[] {"Tab", "Line", "Message"});
+        labels.put(PageKind.RUNTIME_EXCEPTION, new String[] {"Exception", "Tab", "Line", "Message"});
+        return labels;
+    }
+
+}
@@ -0,0 +1,153 @@
+package io.github.soir20.mode.helpfuljava.web;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of whether the hint server can be reached, so pages aren't
+ * requested from a server that is down and callers don't wait for the
+ * platform's network timeout. Once a request fails, the server is probed in
+ * the background until it answers again. Safe to use from any thread.
+ * @author soir20
+ */
+public class ConnectivityMonitor {
+    private final String PROBE_URL;
+    private final int TIMEOUT;
+    private final int RETRY_INTERVAL;
+    private final ScheduledExecutorService EXECUTOR;
+    private final List<Runnable> RECONNECT_LISTENERS;
+    private volatile boolean isReachable;
+    private ScheduledFuture<?> retry;
+
+    /**
+     * Creates a new monitor. The server is assumed to be reachable until a request fails.
+     * @param probeUrl          the URL to check the server with
+     * @param timeout           milliseconds to wait for a connection or a response
+     * @param retryInterval     milliseconds between checks while the server is down
+     */
+    public ConnectivityMonitor(String probeUrl, int timeout, int retryInterval) {
+        PROBE_URL = probeUrl;
+        TIMEOUT = timeout;
+        RETRY_INTERVAL = retryInterval;
+        RECONNECT_LISTENERS = new CopyOnWriteArrayList<>();
+        isReachable = true;
+
+        EXECUTOR = Executors.newSingleThreadScheduledExecutor((task) -> {
+            Thread thread = new Thread(task, "Hint connectivity monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the timeout for requests to the server.
+     * @return milliseconds to wait for a connection or a response
+     */
+    public int getTimeout() {
+        return TIMEOUT;
+    }
+
+    /**
+     * Checks whether the server could be reached the last time it was used.
+     * @return whether the server is reachable
+     */
+    public boolean isReachable() {
+        return isReachable;
+    }
+
+    /**
+     * Adds a listener for when the server can be reached again after being down.
+     * @param listener      runs on the monitor's thread when the server comes back
+     */
+    public void addReconnectListener(Runnable listener) {
+        RECONNECT_LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addReconnectListener(Runnable)}.
+     * @param listener      the listener to remove
+     */
+    public void removeReconnectListener(Runnable listener) {
+        RECONNECT_LISTENERS.remove(listener);
+    }
+
+    /**
+     * Records that a request to the server got a response.
+     */
+    public void reportSuccess() {
+        if (!isReachable) {
+            markReachable();
+        }
+    }
+
+    /**
+     * Records that a request to the server couldn't connect or timed out, and
+     * starts checking the server in the background.
+     */
+    public synchronized void reportFailure() {
+        isReachable = false;
+        if (retry == null) {
+            retry = EXECUTOR.scheduleWithFixedDelay(this::probe, RETRY_INTERVAL, RETRY_INTERVAL,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops checking the server. The monitor can't be used afterward.
+     */
+    public void shutdown() {
+        EXECUTOR.shutdownNow();
+    }
+
+    /**
+     * Checks whether the server answers. Any response counts, even an error,
+     * because it means the server can be reached.
+     */
+    private void probe() {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(PROBE_URL).openConnection();
+            connection.setRequestMethod("HEAD");
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            connection.getResponseCode();
+
+            markReachable();
+        } catch (IOException err) {
+
+            // Still down, so check again after the next interval
+
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Stops checking the server and notifies the listeners that it is back.
+     */
+    private void markReachable() {
+        synchronized (this) {
+            if (isReachable) {
+                return;
+            }
+
+            isReachable = true;
+            if (retry != null) {
+                retry.cancel(false);
+                retry = null;
+            }
+        }
+
+        RECONNECT_LISTENERS.forEach(Runnable::run);
+    }
+
+}
@@ -0,0 +1,57 @@
+package io.github.soir20.mode.helpfuljava.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps recently fetched hint pages in memory so the hints tab can show them
+ * without waiting for the network. The least recently used pages are evicted
+ * first. Safe to use from any thread.
+ * @author soir20
+ */
+public class HintPageCache {
+    private final Map<String, String> PAGES;
+
+    /**
+     * Creates an empty cache.
+     * @param maxPages      the maximum number of pages to keep
+     */
+    public HintPageCache(int maxPages) {
+        PAGES = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached page.
+     * @param key       the page's cache key
+     * @return the page's HTML as the server sent it or empty if the page isn't cached
+     */
+    public synchronized Optional<String> get(String key) {
+        return Optional.ofNullable(PAGES.get(key));
+    }
+
+    /**
+     * Checks whether a page is cached without counting it as used.
+     * @param key       the page's cache key
+     * @return whether the page is cached
+     */
+    public synchronized boolean contains(String key) {
+        return PAGES.containsKey(key);
+    }
+
+    /**
+     * Adds a page to the cache. The page is stored as the server sent it; the
+     * view resolves its relative links against its URL when it shows it.
+     * @param key       the page's cache key
+     * @param html      the page's HTML
+     */
+    public synchronized void put(String key, String html) {
+        PAGES.put(key, html);
+    }
+
+}
@@ -0,0 +1,278 @@
+package io.github.soir20.mode.helpfuljava.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Fetches hint pages in the background before the user asks for them and puts
+ * them in a {@link HintPageCache}. Only a few pages are fetched at once, and
+ * connections to the hint server are kept alive between fetches. Prefetching
+ * waits while the user is typing and stops while the {@link ConnectivityMonitor}
+ * reports that the server can't be reached. The prefetcher is shared, so each
+ * editor prefetches through its own {@link Requester}, and a new request only
+ * drops older pages from the same editor. Pages that are about to be shown are
+ * fetched on their own thread, so they never wait behind prefetches.
+ * @author soir20
+ */
+public class HintPrefetcher {
+    private static final int MAX_CONCURRENT_FETCHES = 2;
+    private static final int MAX_PAGES_PER_REQUEST = 6;
+    private static final long TYPING_BACKOFF = TimeUnit.MILLISECONDS.toNanos(750);
+
+    private final HintPageCache CACHE;
+    private final ConnectivityMonitor CONNECTIVITY;
+    private final ScheduledThreadPoolExecutor EXECUTOR;
+    private final ExecutorService FOREGROUND_EXECUTOR;
+    private final Map<String, CompletableFuture<Boolean>> PENDING_FETCHES;
+    private volatile long lastTypingTime;
+
+    /**
+     * Creates a new prefetcher.
+     * @param cache             the cache to put fetched pages in
+     * @param connectivity      the monitor for whether the hint server can be reached
+     */
+    public HintPrefetcher(HintPageCache cache, ConnectivityMonitor connectivity) {
+        CACHE = cache;
+        CONNECTIVITY = connectivity;
+        PENDING_FETCHES = new ConcurrentHashMap<>();
+
+        EXECUTOR = new ScheduledThreadPoolExecutor(MAX_CONCURRENT_FETCHES, (task) -> {
+            Thread thread = new Thread(task, "Hint prefetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        EXECUTOR.setRemoveOnCancelPolicy(true);
+
+        FOREGROUND_EXECUTOR = Executors.newSingleThreadExecutor((task) -> {
+            Thread thread = new Thread(task, "Hint fetcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        lastTypingTime = System.nanoTime() - TYPING_BACKOFF;
+    }
+
+    /**
+     * Creates a new requester for one editor's prefetches.
+     * @return a new requester
+     */
+    public Requester createRequester() {
+        return new Requester();
+    }
+
+    /**
+     * Fetches pages that aren't cached yet. Pages from the requester's earlier
+     * calls that haven't started are dropped because they are probably no longer
+     * needed. Can be called on any thread.
+     * @param requester     the requester for the editor that needs the pages
+     * @param pages         the URL of each page by its cache key, most likely to be
+     *                      needed first
+     */
+    public void prefetch(Requester requester, Map<String, String> pages) {
+        long generation = requester.GENERATION.incrementAndGet();
+        if (!CONNECTIVITY.isReachable()) {
+            return;
+        }
+
+        pages.entrySet().stream().filter((page) -> !CACHE.contains(page.getKey())).limit(MAX_PAGES_PER_REQUEST)
+                .forEach((page) -> EXECUTOR.execute(
+                        () -> fetchWhenIdle(page.getKey(), page.getValue(), requester, generation)
+                ));
+    }
+
+    /**
+     * Fetches a page right away because it is about to be shown, without waiting
+     * for the user to stop typing. The action gets the page from the cache if it
+     * is already there. When the server can't be reached, the action runs right
+     * away instead of waiting for a timeout. When the server answers with an
+     * error instead of the page, nothing is cached, so the page is fetched
+     * again the next time it is shown. If the page is already being fetched,
+     * the actions run when that fetch finishes instead of fetching it twice.
+     * Can be called on any thread.
+     * @param cacheKey      the key of the page in the cache
+     * @param url           the URL of the page
+     * @param pageAction    run on a fetching thread with the page's HTML, or
+     *                      with empty if the server couldn't be reached
+     * @param errorAction   run on a fetching thread if the server answered with an error
+     */
+    public void fetchNow(String cacheKey, String url, Consumer<Optional<String>> pageAction, Runnable errorAction) {
+        Optional<String> cachedPage = CACHE.get(cacheKey);
+        if (cachedPage.isPresent() || !CONNECTIVITY.isReachable()) {
+            pageAction.accept(cachedPage);
+            return;
+        }
+
+        CompletableFuture<Boolean> newFetch = new CompletableFuture<>();
+        CompletableFuture<Boolean> pendingFetch = PENDING_FETCHES.putIfAbsent(cacheKey, newFetch);
+        if (pendingFetch == null) {
+            pendingFetch = newFetch;
+            FOREGROUND_EXECUTOR.execute(() -> fetchPending(cacheKey, url, newFetch));
+        }
+
+        pendingFetch.thenAccept((isError) -> {
+            if (isError) {
+                errorAction.run();
+                return;
+            }
+
+            pageAction.accept(CACHE.get(cacheKey));
+        });
+    }
+
+    /**
+     * Delays prefetching because the user is typing. Should be called for every key press.
+     */
+    public void noteTyping() {
+        lastTypingTime = System.nanoTime();
+    }
+
+    /**
+     * Stops all prefetching. The prefetcher can't be used afterward.
+     */
+    public void shutdown() {
+        EXECUTOR.shutdownNow();
+        FOREGROUND_EXECUTOR.shutdownNow();
+    }
+
+    /**
+     * Fetches a page once the user has stopped typing, unless the same requester
+     * has requested newer pages in the meantime.
+     * @param cacheKey      the key of the page in the cache
+     * @param url           the URL of the page
+     * @param requester     the requester that asked for the page
+     * @param generation    the requester's generation when it asked for the page
+     */
+    private void fetchWhenIdle(String cacheKey, String url, Requester requester, long generation) {
+        if (generation != requester.GENERATION.get() || !CONNECTIVITY.isReachable()) {
+            return;
+        }
+
+        // Fetching while the user types competes with the error checker for the CPU
+        long timeSinceTyping = System.nanoTime() - lastTypingTime;
+        if (timeSinceTyping < TYPING_BACKOFF) {
+            EXECUTOR.schedule(() -> fetchWhenIdle(cacheKey, url, requester, generation),
+                    TYPING_BACKOFF - timeSinceTyping, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        CompletableFuture<Boolean> newFetch = new CompletableFuture<>();
+        if (CACHE.contains(cacheKey) || PENDING_FETCHES.putIfAbsent(cacheKey, newFetch) != null) {
+            return;
+        }
+
+        fetchPending(cacheKey, url, newFetch);
+    }
+
+    /**
+     * Fetches a page that was marked as pending, so other requests for the same
+     * page can wait for it instead of fetching it again.
+     * @param cacheKey      the key of the page in the cache
+     * @param url           the URL of the page
+     * @param result        the pending fetch, which is completed with whether
+     *                      the server answered with an error
+     */
+    private void fetchPending(String cacheKey, String url, CompletableFuture<Boolean> result) {
+        boolean isError = false;
+
+        try {
+            isError = !fetch(cacheKey, url);
+        } catch (IOException err) {
+            CONNECTIVITY.reportFailure();
+        } finally {
+            PENDING_FETCHES.remove(cacheKey, result);
+            result.complete(isError);
+        }
+    }
+
+    /**
+     * Fetches a page and caches it if the server returns it successfully.
+     * Any response means the server can be reached, even an error.
+     * @param cacheKey  the key to cache the page by
+     * @param url       the URL of the page
+     * @return whether the server returned the page
+     * @throws IOException if the server can't be reached
+     */
+    private boolean fetch(String cacheKey, String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECTIVITY.getTimeout());
+        connection.setReadTimeout(CONNECTIVITY.getTimeout());
+
+        // Fully reading and closing the stream without disconnecting lets the connection be reused
+        boolean isSuccess = connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+        CONNECTIVITY.reportSuccess();
+
+        InputStream responseStream = isSuccess ? connection.getInputStream() : connection.getErrorStream();
+        if (responseStream == null) {
+            return isSuccess;
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = responseStream) {
+            byte[] buffer = new byte[4096];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) >= 0) {
+                body.write(buffer, 0, bytesRead);
+            }
+        }
+
+        if (isSuccess) {
+            CACHE.put(cacheKey, new String(body.toByteArray(), getCharset(connection.getContentType())));
+        }
+
+        return isSuccess;
+    }
+
+    /**
+     * Finds the character set of a response.
+     * @param contentType   the response's content type, which may be null
+     * @return the character set in the content type or UTF-8 if it has none
+     */
+    private Charset getCharset(String contentType) {
+        if (contentType != null) {
+            for (String param : contentType.split(";")) {
+                String[] nameAndValue = param.trim().split("=", 2);
+                if (nameAndValue.length == 2 && nameAndValue[0].equalsIgnoreCase("charset")) {
+                    try {
+                        return Charset.forName(nameAndValue[1].replace("\"", "").trim());
+                    } catch (IllegalArgumentException err) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Tracks the newest prefetch request from one editor, so a request only
+     * replaces that editor's older requests.
+     */
+    public static final class Requester {
+        private final AtomicLong GENERATION;
+
+        /**
+         * Creates a new requester with no requests.
+         */
+        private Requester() {
+            GENERATION = new AtomicLong();
+        }
+
+    }
+
+}
@@ -0,0 +1,277 @@
+package io.github.soir20.mode.helpfuljava.tools;
+
+import io.github.soir20.mode.helpfuljava.pdex.AnalysisBudget;
+import io.github.soir20.mode.helpfuljava.pdex.CompileMessageHints;
+import io.github.soir20.mode.helpfuljava.pdex.ErrorListener;
+import io.github.soir20.mode.helpfuljava.pdex.ProblemTable;
+import io.github.soir20.mode.helpfuljava.pdex.SnippetCorpus;
+import io.github.soir20.mode.helpfuljava.pdex.SnippetSketch;
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import processing.mode.java.pdex.PreprocessedSketch;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Measures how many bytes each hint path allocates per call and fails when a
+ * path allocates more than its budget. Every snippet in the {@link SnippetCorpus}
+ * is driven through {@link ErrorListener} four ways: the refined hint for its AST,
+ * and, as a one-tab {@link SnippetSketch}, copying its problems into a
+ * {@link ProblemTable}, finding its first quick hint with
+ * {@link ErrorListener#updateSketch}, and finding the same hint again from the
+ * tab's table of refined hints. Every {@link CompileMessageHints} message is
+ * driven with a fixture tab. The listeners have no time limit, so a slow call is
+ * measured in full instead of being abandoned partway. Allocations are read from
+ * the thread allocation counter, so the measurements don't depend on when the
+ * garbage collector runs.
+ *
+ * A path without a budget gets its measurement plus headroom appended to the
+ * budgets file as its budget, so new paths start being checked on their first run.
+ *
+ * Options:
+ * --corpus         snippet corpus shared with the warm-up (default resources/warmup-corpus.txt)
+ * --budgets        properties file with the budget in bytes for each path
+ *                  (default tools/allocation-budgets.properties)
+ * --record         if "true", writes the measurements plus headroom to the
+ *                  budgets file instead of checking them (default false)
+ * --warmup         calls before measuring each path (default 200)
+ * --iterations     calls to average each measurement over (default 1000)
+ * @author soir20
+ */
+public class HintAllocationCheck {
+    private static final double RECORD_HEADROOM = 1.5;
+    private static final String SNIPPET_CLASS = "Snippet";
+
+    private final File CORPUS_FILE;
+    private final File BUDGETS_FILE;
+    private final boolean IS_RECORDING;
+    private final int WARMUP;
+    private final int ITERATIONS;
+    private final com.sun.management.ThreadMXBean THREAD_BEAN;
+    private final ErrorListener LISTENER;
+    private final CompileMessageHints MESSAGE_HINTS;
+
+    /**
+     * Creates a new check.
+     * @param options       the check options
+     */
+    public HintAllocationCheck(ToolOptions options) {
+        CORPUS_FILE = new File(options.get("corpus", "resources/warmup-corpus.txt"));
+        BUDGETS_FILE = new File(options.get("budgets", "tools/allocation-budgets.properties"));
+        IS_RECORDING = Boolean.parseBoolean(options.get("record", "false"));
+        WARMUP = options.getInt("warmup", 200);
+        ITERATIONS = options.getInt("iterations", 1000);
+
+        THREAD_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LISTENER = createListener();
+        MESSAGE_HINTS = new CompileMessageHints(LISTENER.getUrlAssembler());
+    }
+
+    /**
+     * Runs the check with the given options. Exits with a non-zero status if
+     * any path is over its budget so the build fails.
+     * @param args      the check options
+     * @throws IOException if the budgets file can't be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        boolean isWithinBudget = new HintAllocationCheck(new ToolOptions(args)).run();
+        if (!isWithinBudget) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Measures every path and checks or records the budgets.
+     * @return whether every path is within its budget
+     * @throws IOException if the corpus can't be read or the budgets file can't be read or written
+     */
+    public boolean run() throws IOException {
+        if (!THREAD_BEAN.isThreadAllocatedMemorySupported()) {
+            System.err.println("This JVM can't count allocated bytes per thread.");
+            return false;
+        }
+        THREAD_BEAN.setThreadAllocatedMemoryEnabled(true);
+
+        Properties budgets = new Properties();
+        if (BUDGETS_FILE.exists()) {
+            try (InputStream in = new FileInputStream(BUDGETS_FILE)) {
+                budgets.load(in);
+            }
+        }
+
+        Properties recordedBudgets = new Properties();
+        List<String> newBudgets = new ArrayList<>();
+        boolean isWithinBudget = true;
+
+        System.out.println("path,bytesPerCall,budget");
+        for (Map.Entry<String, Supplier<?>> path : createPaths().entrySet()) {
+            long bytesPerCall = measure(path.getValue());
+            String budgetText = budgets.getProperty(path.getKey());
+            String recordedBudget = String.valueOf((long) (bytesPerCall * RECORD_HEADROOM));
+
+            System.out.println(path.getKey() + "," + bytesPerCall + "," + (budgetText == null ? "" : budgetText));
+            recordedBudgets.setProperty(path.getKey(), recordedBudget);
+
+            if (IS_RECORDING) {
+                continue;
+            }
+
+            // A shared fallback budget would be too loose to catch regressions in cheap paths
+            if (budgetText == null) {
+                System.out.println(path.getKey() + " had no budget, so " + recordedBudget + " bytes was recorded.");
+                newBudgets.add(path.getKey() + "=" + recordedBudget);
+                continue;
+            }
+
+            long budget = Long.parseLong(budgetText.trim());
+            if (bytesPerCall > budget) {
+                System.err.println(path.getKey() + " allocated " + bytesPerCall + " bytes per call, over its budget of "
+                        + budget + " bytes.");
+                isWithinBudget = false;
+            }
+        }
+
+        if (IS_RECORDING) {
+            try (OutputStream out = new FileOutputStream(BUDGETS_FILE)) {
+                recordedBudgets.store(out, "Bytes each hint path may allocate per call");
+            }
+            return true;
+        }
+
+        // Appending keeps the comments and the budgets that were already there
+        if (!newBudgets.isEmpty()) {
+            Files.write(BUDGETS_FILE.toPath(), newBudgets, StandardCharsets.ISO_8859_1,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        return isWithinBudget;
+    }
+
+    /**
+     * Creates every path to measure.
+     * @return the paths by name
+     * @throws IOException if the corpus can't be read
+     */
+    private Map<String, Supplier<?>> createPaths() throws IOException {
+        Map<String, Supplier<?>> paths = new LinkedHashMap<>();
+
+        for (SnippetCorpus.Snippet snippet : SnippetCorpus.read(CORPUS_FILE).getSnippets()) {
+            addProblemPath(paths, snippet);
+            addSketchPaths(paths, snippet);
+        }
+
+        addMessagePath(paths, "extraClosingBrace", "expecting EOF, found '}'",
+                "void setup() {\n  background(0);\n}\n}\n", "}\n".length());
+        addMessagePath(paths, "incorrectVarDeclaration", "expecting DOT, found 'values'",
+                "int[5] values;\nvoid setup() {\n}\n", "values;\nvoid setup() {\n}\n".length());
+        addMessagePath(paths, "mixedModes", "It looks like you're mixing \"active\" and \"static\" modes.",
+                "int x = 1;\nline(0, 0, x, x);\nvoid setup() {\n}\n", "void setup() {\n}\n".length());
+        addMessagePath(paths, "unexpectedToken", "unexpected token: int",
+                "void setup() {\n  int int = 1;\n}\n", "int = 1;\n}\n".length());
+
+        return paths;
+    }
+
+    /**
+     * Adds a path that finds the hint for a snippet's compiler problem in the snippet's AST.
+     * @param paths         the paths to add to
+     * @param snippet       the snippet to add a path for
+     * @throws IllegalStateException if the snippet doesn't have its problem
+     */
+    private void addProblemPath(Map<String, Supplier<?>> paths, SnippetCorpus.Snippet snippet) {
+        CompilationUnit ast = snippet.parse();
+        IProblem compilerError = snippet.findProblem(ast).orElseThrow(() -> new IllegalStateException(
+                "Snippet " + snippet.getName() + " doesn't have the expected problem. Found: "
+                        + Arrays.stream(ast.getProblems()).map(IProblem::getMessage).collect(Collectors.toList())
+        ));
+
+        paths.put(snippet.getName(), () -> LISTENER.findHint(compilerError, ast));
+    }
+
+    /**
+     * Adds the paths that analyze a snippet as a sketch: copying its problems into
+     * a table, finding its first quick hint, and finding its first hint from the
+     * tab's refined hints. Each path has its own listener, since the listener
+     * keeps the tab's refined hints between sketches.
+     * @param paths         the paths to add to
+     * @param snippet       the snippet to add paths for
+     */
+    private void addSketchPaths(Map<String, Supplier<?>> paths, SnippetCorpus.Snippet snippet) {
+        SnippetSketch snippetSketch = SnippetSketch.of(snippet.getMembers(), SNIPPET_CLASS);
+        PreprocessedSketch sketch = snippetSketch.getSketch();
+
+        paths.put(snippet.getName() + ".extract", () -> ProblemTable.extract(sketch, AnalysisBudget.UNLIMITED));
+
+        // Nothing is refined, so every sketch gets quick hints
+        ErrorListener quickListener = createListener();
+        paths.put(snippet.getName() + ".quickHint",
+                () -> quickListener.updateSketch(sketch, quickListener.startGeneration()));
+
+        // Every problem is refined once, so later sketches get the hints from the tab's table
+        ErrorListener cachedListener = createListener();
+        cachedListener.updateSketch(sketch, cachedListener.startGeneration());
+        cachedListener.precomputeHints(snippetSketch.getProblems());
+        paths.put(snippet.getName() + ".cachedTabHint",
+                () -> cachedListener.updateSketch(sketch, cachedListener.startGeneration()));
+    }
+
+    /**
+     * Adds a path that finds the hint for a build message in a fixture tab.
+     * @param paths             the paths to add to
+     * @param name              the name of the path
+     * @param message           the build message
+     * @param code              the text of the fixture tab
+     * @param offsetFromEnd     how far before the end of the tab the error is
+     */
+    private void addMessagePath(Map<String, Supplier<?>> paths, String name, String message, String code,
+                                int offsetFromEnd) {
+        int errorOffset = code.length() - offsetFromEnd;
+        paths.put(name, () -> MESSAGE_HINTS.getErrorPageUrl(message, code, errorOffset));
+    }
+
+    /**
+     * Creates a listener without a time limit, so every call is measured in full.
+     * @return a new listener
+     */
+    private static ErrorListener createListener() {
+        return new ErrorListener(HintTelemetry.disabled(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Measures the average bytes a path allocates per call on this thread.
+     * @param path      the path to measure
+     * @return the average bytes allocated per call
+     */
+    private long measure(Supplier<?> path) {
+        for (int iteration = 0; iteration < WARMUP; iteration++) {
+            path.get();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long startBytes = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            path.get();
+        }
+
+        return (THREAD_BEAN.getThreadAllocatedBytes(threadId) - startBytes) / ITERATIONS;
+    }
+
+}
@@ -0,0 +1,213 @@
+package io.github.soir20.mode.helpfuljava.tools;
+
+import io.github.soir20.mode.helpfuljava.pdex.HintDescriptor;
+import io.github.soir20.mode.helpfuljava.pdex.HintUrlEncoder;
+import io.github.soir20.mode.helpfuljava.pdex.PageKind;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates several editors loading hint pages at the same time and reports
+ * how long the loads took. Each editor requests a random hint of every kind,
+ * built with {@link HintUrlEncoder} so the requests match the mode's.
+ *
+ * Options:
+ * --url            base URL of the hint server (default http://localhost:8090/)
+ * --editors        number of simulated editors (default 8)
+ * --requests       number of hints each editor loads (default 100)
+ * --think          milliseconds each editor waits between hints (default 0)
+ * --timeout        connect and read timeout in milliseconds (default 5000)
+ * @author soir20
+ */
+public class HintLoadTest {
+    private static final String[] SAMPLE_WORDS = {"x", "speed", "ball", "int", "float", "String", "PVector",
+            "draw", "setup", "ellipse", "mouseX", "new int[10]", "{ 1, 2 }", "a < b && b > c"};
+
+    private final String BASE_URL;
+    private final int EDITORS;
+    private final int REQUESTS;
+    private final int THINK_TIME;
+    private final int TIMEOUT;
+    private final long[] LATENCIES;
+    private final AtomicInteger NEXT_LATENCY;
+    private final AtomicInteger FAILURES;
+    private final AtomicInteger TIMEOUTS;
+
+    /**
+     * Creates a new load test.
+     * @param options       the load test options
+     */
+    public HintLoadTest(ToolOptions options) {
+        BASE_URL = options.get("url", "http://localhost:8090/");
+        EDITORS = options.getInt("editors", 8);
+        REQUESTS = options.getInt("requests", 100);
+        THINK_TIME = options.getInt("think", 0);
+        TIMEOUT = options.getInt("timeout", 5000);
+        LATENCIES = new long[EDITORS * REQUESTS];
+        NEXT_LATENCY = new AtomicInteger();
+        FAILURES = new AtomicInteger();
+        TIMEOUTS = new AtomicInteger();
+    }
+
+    /**
+     * Runs a load test with the given options and prints the results.
+     * @param args      the load test options
+     * @throws InterruptedException if interrupted while waiting for the editors
+     */
+    public static void main(String[] args) throws InterruptedException {
+        new HintLoadTest(new ToolOptions(args)).run();
+    }
+
+    /**
+     * Runs every simulated editor until it has loaded all of its hints, then prints the results.
+     * @throws InterruptedException if interrupted while waiting for the editors
+     */
+    public void run() throws InterruptedException {
+        CountDownLatch finished = new CountDownLatch(EDITORS);
+        long startTime = System.nanoTime();
+
+        for (int editor = 0; editor < EDITORS; editor++) {
+            long seed = editor;
+            Thread thread = new Thread(() -> {
+                try {
+                    simulateEditor(new Random(seed));
+                } finally {
+                    finished.countDown();
+                }
+            }, "Simulated editor " + editor);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        finished.await();
+        printResults(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Loads hints the way one editor would.
+     * @param random    the source of hints to load
+     */
+    private void simulateEditor(Random random) {
+        HintUrlEncoder urlEncoder = new HintUrlEncoder(BASE_URL, true);
+        PageKind[] kinds = PageKind.values();
+
+        for (int request = 0; request < REQUESTS; request++) {
+            String url = urlEncoder.getUrl(randomHint(kinds[request % kinds.length], random));
+
+            long requestStart = System.nanoTime();
+            if (load(url)) {
+                LATENCIES[NEXT_LATENCY.getAndIncrement()] = System.nanoTime() - requestStart;
+            }
+
+            if (THINK_TIME > 0) {
+                try {
+                    Thread.sleep(THINK_TIME);
+                } catch (InterruptedException err) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a hint with random parameters.
+     * @param kind      the kind of hint
+     * @param random    the source of parameters
+     * @return a hint with a value for every parameter
+     */
+    private HintDescriptor randomHint(PageKind kind, Random random) {
+        String[] params = new String[kind.getParamCount()];
+        for (int index = 0; index < params.length; index++) {
+            params[index] = SAMPLE_WORDS[random.nextInt(SAMPLE_WORDS.length)];
+        }
+
+        return HintDescriptor.of(kind, params);
+    }
+
+    /**
+     * Loads a page completely. The connection isn't disconnected, so it stays in
+     * the keep-alive pool for the editor's next request like the browser's would.
+     * @param url       the URL of the page
+     * @return whether the page loaded successfully
+     */
+    private boolean load(String url) {
+        HttpURLConnection connection;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+
+            boolean isOk = connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+            drain(isOk ? connection.getInputStream() : connection.getErrorStream());
+
+            if (!isOk) {
+                FAILURES.incrementAndGet();
+            }
+            return isOk;
+        } catch (SocketTimeoutException err) {
+            TIMEOUTS.incrementAndGet();
+            return false;
+        } catch (IOException err) {
+            FAILURES.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Reads a response body to the end and closes it, which returns its
+     * connection to the keep-alive pool.
+     * @param in        the response body or null if there is none
+     * @throws IOException if the body can't be read
+     */
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+
+        byte[] buffer = new byte[4096];
+        try (InputStream body = in) {
+            while (body.read(buffer) >= 0) {
+                // Read the whole page like the editor's browser would
+            }
+        }
+    }
+
+    /**
+     * Prints the number of loads, their latencies, and the throughput.
+     * @param elapsedNanos      how long the whole test took
+     */
+    private void printResults(long elapsedNanos) {
+        long[] latencies = Arrays.copyOf(LATENCIES, NEXT_LATENCY.get());
+        Arrays.sort(latencies);
+
+        System.out.println("editors,requests,succeeded,failed,timed out,p50 ms,p90 ms,p99 ms,max ms,requests/s");
+        System.out.println(EDITORS + "," + EDITORS * REQUESTS + "," + latencies.length + "," + FAILURES.get()
+                + "," + TIMEOUTS.get() + "," + percentile(latencies, 0.5) + "," + percentile(latencies, 0.9)
+                + "," + percentile(latencies, 0.99) + "," + percentile(latencies, 1)
+                + "," + String.format("%.1f", EDITORS * REQUESTS / (elapsedNanos / 1e9)));
+    }
+
+    /**
+     * Finds a percentile of sorted latencies.
+     * @param sortedLatencies   latencies in nanoseconds, sorted in ascending order
+     * @param fraction          the percentile as a fraction from 0 to 1
+     * @return the latency at the percentile in milliseconds or 0 if there are no latencies
+     */
+    private long percentile(long[] sortedLatencies, double fraction) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(fraction * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1000000;
+    }
+
+}
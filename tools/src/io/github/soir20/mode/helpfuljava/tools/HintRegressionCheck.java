@@ -0,0 +1,99 @@
+package io.github.soir20.mode.helpfuljava.tools;
+
+import io.github.soir20.mode.helpfuljava.pdex.CompileMessageHints;
+import io.github.soir20.mode.helpfuljava.pdex.ErrorListener;
+import io.github.soir20.mode.helpfuljava.pdex.SnippetCorpus;
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Checks hint edge cases that were once broken, so they stay fixed. Each check
+ * runs the same classes the editor uses on a small input. Exits with a non-zero
+ * status if any check fails or throws, so the build fails.
+ * @author soir20
+ */
+public class HintRegressionCheck {
+    private final List<String> NAMES;
+    private final List<BooleanSupplier> CHECKS;
+
+    /**
+     * Creates the checks.
+     */
+    public HintRegressionCheck() {
+        NAMES = new ArrayList<>();
+        CHECKS = new ArrayList<>();
+
+        ErrorListener listener = new ErrorListener(HintTelemetry.disabled());
+        CompileMessageHints messageHints = new CompileMessageHints(listener.getUrlAssembler());
+
+        add("varDeclarationAtStartOfTab", () -> !messageHints.getErrorPageUrl(
+                "expecting DOT, found 'values'", "values;\nvoid setup() {\n}\n", 0
+        ).isPresent());
+
+        // Each argument of a missing method infers its type from the same call
+        add("inferredTypesReusedInOneCall", () -> {
+            SnippetCorpus.Snippet snippet = new SnippetCorpus.Snippet("missingMethodWithArguments",
+                    IProblem.UndefinedMethod, "void setup() { int total = sum(1, 2, 3); }");
+            CompilationUnit ast = snippet.parse();
+            IProblem problem = snippet.findProblem(ast).orElseThrow(
+                    () -> new IllegalStateException("The snippet doesn't call a missing method.")
+            );
+
+            listener.findHint(problem, ast);
+            return listener.getUrlAssembler().getInferredTypeHits() >= 2;
+        });
+    }
+
+    /**
+     * Runs every check.
+     * @param args      unused
+     */
+    public static void main(String[] args) {
+        if (!new HintRegressionCheck().run()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs every check and prints whether it passed.
+     * @return whether every check passed
+     */
+    public boolean run() {
+        boolean hasPassed = true;
+
+        for (int index = 0; index < CHECKS.size(); index++) {
+            String name = NAMES.get(index);
+
+            try {
+                if (CHECKS.get(index).getAsBoolean()) {
+                    System.out.println(name + ",passed");
+                    continue;
+                }
+
+                System.err.println(name + " failed.");
+            } catch (RuntimeException err) {
+                System.err.println(name + " threw " + err);
+            }
+
+            hasPassed = false;
+        }
+
+        return hasPassed;
+    }
+
+    /**
+     * Adds a check.
+     * @param name      the name of the check
+     * @param check     returns whether the check passed
+     */
+    private void add(String name, BooleanSupplier check) {
+        NAMES.add(name);
+        CHECKS.add(check);
+    }
+
+}
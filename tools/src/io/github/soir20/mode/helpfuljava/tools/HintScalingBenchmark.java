@@ -0,0 +1,347 @@
+package io.github.soir20.mode.helpfuljava.tools;
+
+import io.github.soir20.mode.helpfuljava.pdex.ErrorListener;
+import io.github.soir20.mode.helpfuljava.pdex.SnippetCorpus;
+import io.github.soir20.mode.helpfuljava.pdex.SnippetSketch;
+import io.github.soir20.mode.helpfuljava.telemetry.HintTelemetry;
+import processing.app.Problem;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Measures how the hint pipeline scales with sketch size, tab count, and error
+ * density, using sketches from {@link SyntheticSketchGenerator}. For every
+ * combination of the given sizes, tab counts, and densities, a fresh
+ * {@link ErrorListener} analyzes the sketch like an editor would, and the
+ * median of several runs is written as a row of a CSV file. Each row also has
+ * the exponent of the growth in hint time since the previous size with the same
+ * tabs and density, which is about 1 when the pipeline scales linearly.
+ *
+ * Columns:
+ * parseMillis          time to parse the sketch with bindings, as the error checker does
+ * firstHintMillis      time for {@link ErrorListener#updateSketch} to find the first hint
+ * allHintsMillis       time to compute and refine the hints for every problem
+ * caretLookupMicros    average time to find a computed hint when the caret reaches its problem
+ * uncomputedLookupMicros   average time to find a quick hint for a problem that hasn't
+ *                      been analyzed yet when the caret reaches it
+ * sketchHeapBytes      heap used while the sketch is being analyzed
+ * retainedHeapBytes    heap the listener still holds once every hint is computed, measured
+ *                      as the heap freed when the listener and the problems are dropped
+ *
+ * Options:
+ * --lines          comma-separated sketch sizes in lines (default 100,1000,10000,100000)
+ * --tabs           comma-separated tab counts (default 1,5,20)
+ * --density        comma-separated errors per 1000 lines (default 1,10)
+ * --corpus         snippet corpus shared with the warm-up (default resources/warmup-corpus.txt)
+ * --kinds          snippets to place, as for {@link SyntheticSketchGenerator} (default every snippet)
+ * --runs           runs to take the median of for each row (default 3)
+ * --output         CSV file to write (default hint-scaling.csv)
+ * --max-exponent   if above 0, exits with an error when any hint time grows
+ *                  faster than this power of the sketch size (default 0)
+ * @author soir20
+ */
+public class HintScalingBenchmark {
+    private static final String CLASS_NAME = "SyntheticSketch";
+    private static final long SEED = 1;
+
+    private final int[] LINES;
+    private final int[] TABS;
+    private final double[] DENSITIES;
+    private final Map<SnippetCorpus.Snippet, Integer> SNIPPET_WEIGHTS;
+    private final int RUNS;
+    private final File OUTPUT;
+    private final double MAX_EXPONENT;
+    private final MemoryMXBean MEMORY_BEAN;
+
+    /**
+     * Creates a new benchmark.
+     * @param options       the benchmark options
+     * @throws IOException if the corpus can't be read
+     */
+    public HintScalingBenchmark(ToolOptions options) throws IOException {
+        LINES = Arrays.stream(options.get("lines", "100,1000,10000,100000").split(","))
+                .mapToInt((size) -> Integer.parseInt(size.trim())).sorted().toArray();
+        TABS = Arrays.stream(options.get("tabs", "1,5,20").split(","))
+                .mapToInt((tabs) -> Integer.parseInt(tabs.trim())).toArray();
+        DENSITIES = Arrays.stream(options.get("density", "1,10").split(","))
+                .mapToDouble((density) -> Double.parseDouble(density.trim())).toArray();
+        SnippetCorpus corpus = SnippetCorpus.read(new File(options.get("corpus", "resources/warmup-corpus.txt")));
+        SNIPPET_WEIGHTS = SyntheticSketchGenerator.parseWeights(corpus, options.get("kinds", ""));
+        RUNS = Math.max(options.getInt("runs", 3), 1);
+        OUTPUT = new File(options.get("output", "hint-scaling.csv"));
+        MAX_EXPONENT = options.getDouble("max-exponent", 0);
+        MEMORY_BEAN = ManagementFactory.getMemoryMXBean();
+    }
+
+    /**
+     * Runs the benchmark with the given options. Exits with a non-zero status if
+     * a maximum exponent is given and the hint time grows faster.
+     * @param args      the benchmark options
+     * @throws IOException if the corpus can't be read or the CSV file can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        boolean isWithinExponent = new HintScalingBenchmark(new ToolOptions(args)).run();
+        if (!isWithinExponent) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Measures every combination of size, tab count, and density and writes the CSV file.
+     * @return whether every hint time grew slower than the maximum exponent
+     * @throws FileNotFoundException if the CSV file can't be written
+     */
+    public boolean run() throws FileNotFoundException {
+        boolean isWithinExponent = true;
+
+        // Load and compile the pipeline's classes before anything is measured
+        measure(LINES[0], TABS[0], DENSITIES[DENSITIES.length - 1]);
+
+        try (PrintStream csv = new PrintStream(OUTPUT)) {
+            String header = "lines,tabs,density,problems,parseMillis,firstHintMillis,allHintsMillis,"
+                    + "caretLookupMicros,uncomputedLookupMicros,sketchHeapBytes,retainedHeapBytes,hintExponent";
+            csv.println(header);
+            System.out.println(header);
+
+            for (int tabs : TABS) {
+                for (double density : DENSITIES) {
+                    Measurement previous = null;
+                    int previousLines = 0;
+
+                    for (int lines : LINES) {
+                        Measurement measurement = measureMedian(lines, tabs, density);
+                        double exponent = previous == null ? Double.NaN
+                                : measurement.getExponent(previous, (double) lines / previousLines);
+
+                        String row = lines + "," + tabs + "," + density + "," + measurement + ","
+                                + (Double.isNaN(exponent) ? "" : String.format(Locale.ROOT, "%.2f", exponent));
+                        csv.println(row);
+                        System.out.println(row);
+
+                        if (MAX_EXPONENT > 0 && exponent > MAX_EXPONENT) {
+                            System.err.println("Hint time grew with exponent "
+                                    + String.format(Locale.ROOT, "%.2f", exponent)
+                                    + " up to " + lines + " lines with " + tabs + " tabs and density " + density
+                                    + ", over the maximum of " + MAX_EXPONENT + ".");
+                            isWithinExponent = false;
+                        }
+
+                        previous = measurement;
+                        previousLines = lines;
+                    }
+                }
+            }
+        }
+
+        System.out.println("Wrote " + OUTPUT);
+        return isWithinExponent;
+    }
+
+    /**
+     * Measures a sketch several times and takes the median of each value.
+     * @param lines         approximate number of lines in the sketch
+     * @param tabs          number of tabs in the sketch
+     * @param density       errors per 1000 lines
+     * @return the median measurement
+     */
+    private Measurement measureMedian(int lines, int tabs, double density) {
+        List<Measurement> runs = new ArrayList<>(RUNS);
+        for (int run = 0; run < RUNS; run++) {
+            runs.add(measure(lines, tabs, density));
+        }
+
+        return Measurement.median(runs);
+    }
+
+    /**
+     * Generates a sketch and measures the pipeline's work on it once.
+     * @param lines         approximate number of lines in the sketch
+     * @param tabs          number of tabs in the sketch
+     * @param density       errors per 1000 lines
+     * @return the measurement
+     */
+    private Measurement measure(int lines, int tabs, double density) {
+        List<String> tabTexts = new SyntheticSketchGenerator(lines, tabs, density, SNIPPET_WEIGHTS, SEED).generate();
+        long baseHeap = getUsedHeap();
+
+        long startTime = System.nanoTime();
+        SnippetSketch sketch = SnippetSketch.of(tabTexts, CLASS_NAME);
+        long parseTime = System.nanoTime() - startTime;
+        List<Problem> problems = sketch.getProblems();
+
+        // A separate listener only has the first hint, like an editor before its hints are precomputed
+        ErrorListener uncomputedListener = new ErrorListener(HintTelemetry.disabled());
+        uncomputedListener.updateSketch(sketch.getSketch(), uncomputedListener.startGeneration());
+        startTime = System.nanoTime();
+        for (Problem problem : problems) {
+            uncomputedListener.findHint(problem);
+        }
+        long uncomputedLookupTime = problems.isEmpty() ? 0 : (System.nanoTime() - startTime) / problems.size();
+        uncomputedListener = null;
+
+        ErrorListener listener = new ErrorListener(HintTelemetry.disabled());
+        startTime = System.nanoTime();
+        listener.updateSketch(sketch.getSketch(), listener.startGeneration());
+        long firstHintTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        listener.precomputeHints(problems);
+        long allHintsTime = System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        for (Problem problem : problems) {
+            listener.updateAvailablePageIfReady(problem);
+        }
+        long caretLookupTime = problems.isEmpty() ? 0 : (System.nanoTime() - startTime) / problems.size();
+
+        long sketchHeap = getUsedHeap() - baseHeap;
+        int problemCount = problems.size();
+        if (listener.getRefinedHints().size() > problemCount) {
+            throw new IllegalStateException("The listener has more hints than problems");
+        }
+
+        // Only the listener and the problems, which the editor also keeps, are left
+        sketch = null;
+        long heapWithListener = getUsedHeap();
+
+        // Whatever the listener and the problems held is freed once nothing refers to them
+        listener = null;
+        problems = null;
+        long retainedHeap = Math.max(heapWithListener - getUsedHeap(), 0);
+
+        return new Measurement(problemCount, parseTime, firstHintTime, allHintsTime, caretLookupTime,
+                uncomputedLookupTime, sketchHeap, retainedHeap);
+    }
+
+    /**
+     * Gets the heap in use after collecting as much garbage as possible.
+     * @return the used heap in bytes
+     */
+    private long getUsedHeap() {
+        for (int collection = 0; collection < 3; collection++) {
+            System.gc();
+        }
+
+        return MEMORY_BEAN.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * The values measured for one sketch.
+     * @author soir20
+     */
+    private static class Measurement {
+        private final int PROBLEMS;
+        private final long PARSE_TIME;
+        private final long FIRST_HINT_TIME;
+        private final long ALL_HINTS_TIME;
+        private final long CARET_LOOKUP_TIME;
+        private final long UNCOMPUTED_LOOKUP_TIME;
+        private final long SKETCH_HEAP;
+        private final long RETAINED_HEAP;
+
+        /**
+         * Creates a new measurement.
+         * @param problems          number of problems in the sketch
+         * @param parseTime         nanoseconds to parse the sketch
+         * @param firstHintTime     nanoseconds to find the first hint
+         * @param allHintsTime      nanoseconds to compute and refine every hint
+         * @param caretLookupTime       average nanoseconds to find a computed hint
+         * @param uncomputedLookupTime  average nanoseconds to find a hint that wasn't computed yet
+         * @param sketchHeap            bytes of heap used during the analysis
+         * @param retainedHeap          bytes of heap retained after the analysis
+         */
+        public Measurement(int problems, long parseTime, long firstHintTime, long allHintsTime,
+                           long caretLookupTime, long uncomputedLookupTime, long sketchHeap, long retainedHeap) {
+            PROBLEMS = problems;
+            PARSE_TIME = parseTime;
+            FIRST_HINT_TIME = firstHintTime;
+            ALL_HINTS_TIME = allHintsTime;
+            CARET_LOOKUP_TIME = caretLookupTime;
+            UNCOMPUTED_LOOKUP_TIME = uncomputedLookupTime;
+            SKETCH_HEAP = sketchHeap;
+            RETAINED_HEAP = retainedHeap;
+        }
+
+        /**
+         * Takes the median of each value separately.
+         * @param measurements      the measurements of the same sketch
+         * @return the median measurement
+         */
+        public static Measurement median(List<Measurement> measurements) {
+            return new Measurement(measurements.get(0).PROBLEMS,
+                    median(measurements, (measurement) -> measurement.PARSE_TIME),
+                    median(measurements, (measurement) -> measurement.FIRST_HINT_TIME),
+                    median(measurements, (measurement) -> measurement.ALL_HINTS_TIME),
+                    median(measurements, (measurement) -> measurement.CARET_LOOKUP_TIME),
+                    median(measurements, (measurement) -> measurement.UNCOMPUTED_LOOKUP_TIME),
+                    median(measurements, (measurement) -> measurement.SKETCH_HEAP),
+                    median(measurements, (measurement) -> measurement.RETAINED_HEAP));
+        }
+
+        /**
+         * Estimates the power of the sketch size that the hint time grows with,
+         * from a measurement of a smaller sketch.
+         * @param smaller       the measurement of a smaller sketch with the same tabs and density
+         * @param sizeRatio     how many times larger this sketch is than the smaller one
+         * @return the exponent or NaN if either sketch has no problems
+         */
+        public double getExponent(Measurement smaller, double sizeRatio) {
+            if (PROBLEMS == 0 || smaller.PROBLEMS == 0 || sizeRatio <= 1) {
+                return Double.NaN;
+            }
+
+            return Math.log((double) Math.max(ALL_HINTS_TIME, 1) / Math.max(smaller.ALL_HINTS_TIME, 1))
+                    / Math.log(sizeRatio);
+        }
+
+        @Override
+        public String toString() {
+            return PROBLEMS + "," + toMillis(PARSE_TIME) + "," + toMillis(FIRST_HINT_TIME) + ","
+                    + toMillis(ALL_HINTS_TIME) + "," + toMicros(CARET_LOOKUP_TIME) + ","
+                    + toMicros(UNCOMPUTED_LOOKUP_TIME) + "," + SKETCH_HEAP + "," + RETAINED_HEAP;
+        }
+
+        /**
+         * Takes the median of one value.
+         * @param measurements      the measurements to take the median of
+         * @param value             gets the value from a measurement
+         * @return the median value
+         */
+        private static long median(List<Measurement> measurements,
+                                   ToLongFunction<Measurement> value) {
+            long[] values = measurements.stream().mapToLong(value).sorted().toArray();
+            return values[values.length / 2];
+        }
+
+        /**
+         * Formats nanoseconds as milliseconds.
+         * @param nanos     the nanoseconds
+         * @return the milliseconds with three decimal places
+         */
+        private static String toMillis(long nanos) {
+            return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+        }
+
+        /**
+         * Formats nanoseconds as microseconds.
+         * @param nanos     the nanoseconds
+         * @return the microseconds with three decimal places
+         */
+        private static String toMicros(long nanos) {
+            return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+        }
+
+    }
+
+}
@@ -0,0 +1,210 @@
+package io.github.soir20.mode.helpfuljava.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.soir20.mode.helpfuljava.pdex.PageKind;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A local stand-in for the hint server. It serves a synthetic page for every
+ * path in {@link PageKind}, with configurable latency and failures, so the
+ * mode's network behavior can be measured without the real server.
+ *
+ * Options:
+ * --port           port to listen on (default 8090)
+ * --threads        number of request threads (default 16)
+ * --latency        milliseconds to wait before every response (default 0)
+ * --jitter         up to this many extra milliseconds of random latency (default 0)
+ * --failure-rate   fraction of requests answered with 503 (default 0)
+ * --hang-rate      fraction of requests that wait for --hang milliseconds (default 0)
+ * --hang           milliseconds that hanging requests wait (default 30000)
+ * @author soir20
+ */
+public class HintStandInServer {
+    private final HttpServer SERVER;
+    private final int LATENCY;
+    private final int JITTER;
+    private final double FAILURE_RATE;
+    private final double HANG_RATE;
+    private final int HANG_TIME;
+
+    /**
+     * Creates a new server. It doesn't accept requests until it is started.
+     * @param options       the server options
+     * @throws IOException if the port can't be bound
+     */
+    public HintStandInServer(ToolOptions options) throws IOException {
+        LATENCY = options.getInt("latency", 0);
+        JITTER = options.getInt("jitter", 0);
+        FAILURE_RATE = options.getDouble("failure-rate", 0);
+        HANG_RATE = options.getDouble("hang-rate", 0);
+        HANG_TIME = options.getInt("hang", 30000);
+
+        SERVER = HttpServer.create(new InetSocketAddress("localhost", options.getInt("port", 8090)), 0);
+        SERVER.setExecutor(Executors.newFixedThreadPool(options.getInt("threads", 16)));
+        SERVER.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts a server with the given options and runs until the process is stopped.
+     * @param args      the server options
+     * @throws IOException if the port can't be bound
+     */
+    public static void main(String[] args) throws IOException {
+        HintStandInServer server = new HintStandInServer(new ToolOptions(args));
+        server.start();
+        System.out.println("Serving hint pages at " + server.getBaseUrl());
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        SERVER.start();
+    }
+
+    /**
+     * Stops accepting requests and waits briefly for open requests to finish.
+     */
+    public void stop() {
+        SERVER.stop(1);
+    }
+
+    /**
+     * Gets the base URL to configure the mode with.
+     * @return the base URL of this server
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + SERVER.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Answers a request for a hint page.
+     * @param exchange      the request and response
+     * @throws IOException if the response can't be sent
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            Thread.sleep(LATENCY + (JITTER > 0 ? random.nextInt(JITTER + 1) : 0));
+
+            if (random.nextDouble() < HANG_RATE) {
+                Thread.sleep(HANG_TIME);
+            }
+
+            if (random.nextDouble() < FAILURE_RATE) {
+                respond(exchange, 503, "<html><body>Injected failure</body></html>");
+                return;
+            }
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        String path = exchange.getRequestURI().getPath().substring(1);
+        PageKind kind = findKind(path);
+        if (kind == null) {
+            respond(exchange, 404, "<html><body>No hint page at " + escape(path) + "</body></html>");
+            return;
+        }
+
+        respond(exchange, 200, renderPage(kind, parseQuery(exchange.getRequestURI().getRawQuery())));
+    }
+
+    /**
+     * Finds the kind of page for a path.
+     * @param path      the path without the leading slash
+     * @return the kind of page or null if there is none at the path
+     */
+    private PageKind findKind(String path) {
+        for (PageKind kind : PageKind.values()) {
+            if (kind.getPath().equals(path)) {
+                return kind;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Renders a synthetic page that shows the page kind and its parameters.
+     * @param kind      the kind of page
+     * @param params    the query parameters
+     * @return the HTML for the page
+     */
+    private String renderPage(PageKind kind, Map<String, String> params) {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><title>")
+                .append(kind).append("</title></head><body><h1>").append(kind).append("</h1><dl>");
+
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            html.append("<dt>").append(escape(param.getKey())).append("</dt><dd><pre>")
+                    .append(escape(param.getValue())).append("</pre></dd>");
+        }
+
+        return html.append("</dl></body></html>").toString();
+    }
+
+    /**
+     * Decodes a URL query string.
+     * @param query     the raw query string, which may be null
+     * @return the decoded parameters in order
+     */
+    private Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (query == null) {
+            return params;
+        }
+
+        try {
+            for (String pair : query.split("&")) {
+                int equalsIndex = pair.indexOf('=');
+                if (equalsIndex < 0) {
+                    params.put(URLDecoder.decode(pair, "UTF-8"), "");
+                } else {
+                    params.put(URLDecoder.decode(pair.substring(0, equalsIndex), "UTF-8"),
+                            URLDecoder.decode(pair.substring(equalsIndex + 1), "UTF-8"));
+                }
+            }
+        } catch (UnsupportedEncodingException err) {
+            throw new IllegalStateException(err);
+        }
+
+        return params;
+    }
+
+    /**
+     * Escapes text for HTML.
+     * @param text      the text to escape
+     * @return the escaped text
+     */
+    private String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Sends an HTML response.
+     * @param exchange      the request and response
+     * @param status        the HTTP status code
+     * @param html          the body of the response
+     * @throws IOException if the response can't be sent
+     */
+    private void respond(HttpExchange exchange, int status, String html) throws IOException {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+package io.github.soir20.mode.helpfuljava.tools;
+
+import io.github.soir20.mode.helpfuljava.pdex.SnippetCorpus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates sketches of any size with a controlled number of each broken snippet
+ * in the {@link SnippetCorpus}. The tabs are top-level sketch code, like a sketch
+ * written in the editor. Each placed snippet is wrapped in its own static class,
+ * so a snippet can be placed more than once without its members clashing. The
+ * rest of the code compiles without errors, so every problem in a generated
+ * sketch comes from one of the placed snippets.
+ *
+ * Options when run on its own:
+ * --lines          approximate number of lines in the sketch (default 1000)
+ * --tabs           number of tabs (default 1)
+ * --density        errors per 1000 lines (default 5)
+ * --corpus         snippet corpus shared with the warm-up (default resources/warmup-corpus.txt)
+ * --kinds          comma-separated names of snippets to place, each with an optional
+ *                  weight like "typeMismatch:3" (default every snippet once)
+ * --seed           seed for where the errors go (default 1)
+ * --output         folder to write the tabs to (default synthetic-sketch)
+ * @author soir20
+ */
+public class SyntheticSketchGenerator {
+    private static final String FILLER_TEMPLATE = "float filler%1$d(float x) {\n"
+            + "  float total = 0;\n"
+            + "  for (int i = 0; i < 10; i++) {\n"
+            + "    total += x * i;\n"
+            + "  }\n"
+            + "  return total;\n"
+            + "}\n\n";
+    private static final int FILLER_LINES = 8;
+    private static final String ERROR_TEMPLATE = "static class Error%1$d {\n  %2$s\n}\n\n";
+
+    private final int LINES;
+    private final int TABS;
+    private final double DENSITY;
+    private final List<SnippetCorpus.Snippet> SNIPPET_CYCLE;
+    private final long SEED;
+
+    /**
+     * Creates a new generator.
+     * @param lines             approximate number of lines in the sketch
+     * @param tabs              number of tabs, at least 1
+     * @param density           errors per 1000 lines
+     * @param snippetWeights    how often each snippet is placed relative to the
+     *                          others; snippets that aren't included aren't placed
+     * @param seed              seed for where the errors go, so a sketch can be generated again
+     */
+    public SyntheticSketchGenerator(int lines, int tabs, double density,
+                                    Map<SnippetCorpus.Snippet, Integer> snippetWeights, long seed) {
+        if (tabs < 1) {
+            throw new IllegalArgumentException("A sketch needs at least one tab but " + tabs + " were requested");
+        }
+
+        LINES = lines;
+        TABS = tabs;
+        DENSITY = density;
+        SEED = seed;
+
+        SNIPPET_CYCLE = new ArrayList<>();
+        snippetWeights.forEach((snippet, weight) -> SNIPPET_CYCLE.addAll(Collections.nCopies(weight, snippet)));
+        if (SNIPPET_CYCLE.isEmpty() && density > 0) {
+            throw new IllegalArgumentException("Errors were requested but no snippets were given");
+        }
+    }
+
+    /**
+     * Parses the snippets to place with optional weights, like "typeMismatch:3,variableNotFound".
+     * @param corpus        the corpus with the snippets
+     * @param kinds         the names of the snippets to parse or an empty string for every snippet once
+     * @return the weight of each snippet, in the order they are given
+     * @throws IllegalArgumentException if a snippet doesn't exist
+     */
+    public static Map<SnippetCorpus.Snippet, Integer> parseWeights(SnippetCorpus corpus, String kinds) {
+        Map<SnippetCorpus.Snippet, Integer> weights = new LinkedHashMap<>();
+        if (kinds.trim().isEmpty()) {
+            for (SnippetCorpus.Snippet snippet : corpus.getSnippets()) {
+                weights.put(snippet, 1);
+            }
+            return weights;
+        }
+
+        for (String entry : kinds.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(corpus.getSnippet(parts[0]), parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+
+        return weights;
+    }
+
+    /**
+     * Generates a sketch with the given options and writes its tabs to a folder.
+     * @param args      the generator options
+     * @throws IOException if the corpus can't be read or the tabs can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        ToolOptions options = new ToolOptions(args);
+        File folder = new File(options.get("output", "synthetic-sketch"));
+        String className = folder.getName().replaceAll("[^A-Za-z0-9_]", "_");
+        SnippetCorpus corpus = SnippetCorpus.read(new File(options.get("corpus", "resources/warmup-corpus.txt")));
+
+        SyntheticSketchGenerator generator = new SyntheticSketchGenerator(options.getInt("lines", 1000),
+                options.getInt("tabs", 1), options.getDouble("density", 5),
+                parseWeights(corpus, options.get("kinds", "")), options.getInt("seed", 1));
+        List<String> tabs = generator.generate();
+
+        Files.createDirectories(folder.toPath());
+        for (int tab = 0; tab < tabs.size(); tab++) {
+            String fileName = tab == 0 ? className : className + "_tab" + tab;
+            Files.write(new File(folder, fileName + ".pde").toPath(), tabs.get(tab).getBytes(StandardCharsets.UTF_8));
+        }
+
+        System.out.println("Wrote " + tabs.size() + " tabs to " + folder);
+    }
+
+    /**
+     * Generates the sketch. Errors are spread evenly through the sketch, and
+     * their snippets are shuffled with the seed.
+     * @return the text of each tab
+     */
+    public List<String> generate() {
+        int errorCount = (int) Math.round(LINES * DENSITY / 1000);
+        int blockCount = Math.max(LINES / FILLER_LINES, errorCount);
+
+        List<SnippetCorpus.Snippet> snippets = new ArrayList<>(errorCount);
+        Random random = new Random(SEED);
+        while (snippets.size() < errorCount) {
+            List<SnippetCorpus.Snippet> cycle = new ArrayList<>(SNIPPET_CYCLE);
+            Collections.shuffle(cycle, random);
+            snippets.addAll(cycle.subList(0, Math.min(cycle.size(), errorCount - snippets.size())));
+        }
+
+        List<String> tabs = new ArrayList<>(TABS);
+        StringBuilder tab = new StringBuilder();
+        int nextError = 0;
+
+        for (int block = 0; block < blockCount; block++) {
+
+            // Place each error in the middle of its share of the blocks
+            boolean isErrorBlock = nextError < errorCount
+                    && block == (2L * nextError + 1) * blockCount / (2L * errorCount);
+            if (isErrorBlock) {
+                tab.append(String.format(ERROR_TEMPLATE, block, snippets.get(nextError).getMembers()));
+                nextError++;
+            } else {
+                tab.append(String.format(FILLER_TEMPLATE, block));
+            }
+
+            // Start the next tab once this one has its share of the blocks
+            if (tabs.size() < TABS - 1 && (long) (block + 1) * TABS >= (long) (tabs.size() + 1) * blockCount) {
+                tabs.add(tab.toString());
+                tab.setLength(0);
+            }
+        }
+
+        // Sketches with more tabs than blocks get empty tabs before the last one
+        while (tabs.size() < TABS - 1) {
+            tabs.add(tab.toString());
+            tab.setLength(0);
+        }
+
+        tabs.add(tab.toString());
+
+        return tabs;
+    }
+
+}
@@ -0,0 +1,61 @@
+package io.github.soir20.mode.helpfuljava.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options for the developer tools, given as "--name value" pairs.
+ * @author soir20
+ */
+public class ToolOptions {
+    private final Map<String, String> OPTIONS;
+
+    /**
+     * Parses command-line options.
+     * @param args      the command-line arguments
+     * @throws IllegalArgumentException if an option is missing its value
+     */
+    public ToolOptions(String[] args) {
+        OPTIONS = new HashMap<>();
+
+        for (int index = 0; index < args.length; index++) {
+            String name = args[index];
+            if (!name.startsWith("--") || index + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs but found " + name);
+            }
+
+            OPTIONS.put(name.substring(2), args[++index]);
+        }
+    }
+
+    /**
+     * Gets a text option.
+     * @param name          the name of the option without dashes
+     * @param defaultValue  the value if the option isn't given
+     * @return the value of the option
+     */
+    public String get(String name, String defaultValue) {
+        return OPTIONS.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Gets an integer option.
+     * @param name          the name of the option without dashes
+     * @param defaultValue  the value if the option isn't given
+     * @return the value of the option
+     */
+    public int getInt(String name, int defaultValue) {
+        return OPTIONS.containsKey(name) ? Integer.parseInt(OPTIONS.get(name)) : defaultValue;
+    }
+
+    /**
+     * Gets a decimal option.
+     * @param name          the name of the option without dashes
+     * @param defaultValue  the value if the option isn't given
+     * @return the value of the option
+     */
+    public double getDouble(String name, double defaultValue) {
+        return OPTIONS.containsKey(name) ? Double.parseDouble(OPTIONS.get(name)) : defaultValue;
+    }
+
+}